@@ -1,9 +1,12 @@
 package com.uniconnect.backend.controller;
 
-import com.uniconnect.backend.entity.ChatMessage;
-import com.uniconnect.backend.entity.User;
+import com.uniconnect.backend.dto.ChatInboxView;
+import com.uniconnect.backend.dto.ChatMessageView;
+import com.uniconnect.backend.dto.ChatPartnerView;
+import com.uniconnect.backend.dto.CursorPage;
 import com.uniconnect.backend.service.ChatService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
@@ -19,20 +22,61 @@ public class ChatController {
     private final ChatService chatService;
 
     @PostMapping("/send")
-    public ResponseEntity<ChatMessage> sendMessage(@RequestBody Map<String, Object> request, Authentication auth) {
+    public ResponseEntity<ChatMessageView> sendMessage(@RequestBody Map<String, Object> request, Authentication auth) {
         Long receiverId = ((Number) request.get("receiverId")).longValue();
         Long itemId = request.get("itemId") != null ? ((Number) request.get("itemId")).longValue() : null;
         String content = (String) request.get("content");
-        return ResponseEntity.ok(chatService.sendMessage(receiverId, itemId, content, auth));
+        ChatMessageView message = chatService.sendMessage(receiverId, itemId, content, auth);
+        // Without an id the message is queued but not yet stored
+        return message.getId() != null ? ResponseEntity.ok(message)
+                : ResponseEntity.status(HttpStatus.ACCEPTED).body(message);
     }
 
+    // Oldest first; "before" pages back through history, "after" forward from a known message
     @GetMapping("/conversation/{otherUserId}")
-    public ResponseEntity<List<ChatMessage>> getConversation(@PathVariable Long otherUserId, Authentication auth) {
-        return ResponseEntity.ok(chatService.getConversation(otherUserId, auth));
+    public ResponseEntity<List<ChatMessageView>> getConversation(
+            @PathVariable Long otherUserId,
+            @RequestParam(required = false) Long before,
+            @RequestParam(required = false) Long after,
+            @RequestParam(defaultValue = "50") int limit,
+            Authentication auth) {
+        return ResponseEntity.ok(chatService.getConversation(otherUserId, before, after, Math.min(Math.max(limit, 1), 200), auth));
+    }
+
+    // Fallback for clients without a live socket, and catch-up after a reconnect
+    @GetMapping("/messages")
+    public ResponseEntity<List<ChatMessageView>> getMessagesSince(
+            @RequestParam(defaultValue = "0") Long since,
+            @RequestParam(defaultValue = "100") int limit,
+            Authentication auth) {
+        return ResponseEntity.ok(chatService.getMessagesSince(since, Math.min(Math.max(limit, 1), 500), auth));
+    }
+
+    @GetMapping("/inbox")
+    public ResponseEntity<CursorPage<ChatInboxView>> getInbox(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            Authentication auth) {
+        return ResponseEntity.ok(chatService.getInbox(cursor, Math.min(Math.max(size, 1), 100), auth));
+    }
+
+    @PostMapping("/conversation/{otherUserId}/read")
+    public ResponseEntity<Void> markRead(@PathVariable Long otherUserId, Authentication auth) {
+        chatService.markRead(otherUserId, auth);
+        return ResponseEntity.ok().build();
+    }
+
+    // Sent every few seconds while the app is open, and more often while typing; nothing is stored
+    @PostMapping("/presence")
+    public ResponseEntity<Void> heartbeat(@RequestBody(required = false) Map<String, Object> request,
+            Authentication auth) {
+        Object typingTo = request != null ? request.get("typingTo") : null;
+        chatService.heartbeat(typingTo != null ? ((Number) typingTo).longValue() : null, auth);
+        return ResponseEntity.ok().build();
     }
 
     @GetMapping("/partners")
-    public ResponseEntity<List<User>> getChatPartners(Authentication auth) {
+    public ResponseEntity<List<ChatPartnerView>> getChatPartners(Authentication auth) {
         return ResponseEntity.ok(chatService.getChatPartners(auth));
     }
 }
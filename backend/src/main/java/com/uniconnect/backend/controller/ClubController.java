@@ -3,6 +3,7 @@ package com.uniconnect.backend.controller;
 import com.uniconnect.backend.entity.Club;
 import com.uniconnect.backend.entity.University;
 import com.uniconnect.backend.repository.ClubRepository;
+import com.uniconnect.backend.service.SuggestIndex;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -15,6 +16,7 @@ import java.util.List;
 public class ClubController {
 
     private final ClubRepository clubRepository;
+    private final SuggestIndex suggestIndex;
 
     @GetMapping
     public ResponseEntity<List<Club>> getClubs(@RequestParam Long universityId) {
@@ -25,6 +27,8 @@ public class ClubController {
 
     @PostMapping
     public ResponseEntity<Club> createClub(@RequestBody Club club) {
-        return ResponseEntity.ok(clubRepository.save(club));
+        Club saved = clubRepository.save(club);
+        suggestIndex.added(saved.getUniversity().getId(), SuggestIndex.Kind.CLUB, saved.getId(), saved.getName());
+        return ResponseEntity.ok(saved);
     }
 }
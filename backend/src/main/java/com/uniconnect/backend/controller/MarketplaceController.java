@@ -1,13 +1,22 @@
 package com.uniconnect.backend.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.uniconnect.backend.dto.CursorPage;
+import com.uniconnect.backend.dto.MarketplaceItemView;
 import com.uniconnect.backend.entity.MarketplaceItem;
 import com.uniconnect.backend.service.MarketplaceService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/marketplace")
@@ -15,17 +24,68 @@ import java.util.List;
 public class MarketplaceController {
 
     private final MarketplaceService marketplaceService;
+    private final ObjectMapper objectMapper;
 
     @PostMapping("/items")
     public ResponseEntity<MarketplaceItem> createItem(@RequestBody MarketplaceItem item, Authentication auth) {
         return ResponseEntity.ok(marketplaceService.createItem(item, auth));
     }
 
+    // Without a cursor only the first page, newest first, is returned; later pages need the keyset
+    // mode below, and /items/stream returns every listing
     @GetMapping("/items")
-    public ResponseEntity<List<MarketplaceItem>> getItems(
+    public ResponseEntity<List<MarketplaceItemView>> getItems(
+            @RequestParam Long universityId,
+            @RequestParam(required = false) String category,
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(marketplaceService.getItemsByCursor(universityId, category,
+                MarketplaceService.ListingSort.NEWEST, null, Math.min(Math.max(size, 1), 100)).getContent());
+    }
+
+    // Keyset mode: selected whenever a "cursor" param is sent; an empty cursor returns the first page
+    @GetMapping(value = "/items", params = "cursor")
+    public ResponseEntity<CursorPage<MarketplaceItemView>> getItemsByCursor(
+            @RequestParam Long universityId,
+            @RequestParam(required = false) String category,
+            @RequestParam(defaultValue = "NEWEST") MarketplaceService.ListingSort sort,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(marketplaceService.getItemsByCursor(universityId, category, sort, cursor,
+                Math.min(Math.max(size, 1), 100)));
+    }
+
+    // Bulk export: a JSON array written row by row while the result set is scrolled
+    @GetMapping(value = "/items/stream", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamItems(
             @RequestParam Long universityId,
             @RequestParam(required = false) String category) {
-        return ResponseEntity.ok(marketplaceService.getItems(universityId, category));
+        StreamingResponseBody body = out -> {
+            try (JsonGenerator json = objectMapper.getFactory().createGenerator(out)) {
+                json.writeStartArray();
+                marketplaceService.streamItems(universityId, category, item -> {
+                    try {
+                        json.writeObject(item);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                json.writeEndArray();
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<Map<String, Object>> searchItems(
+            @RequestParam Long universityId,
+            @RequestParam(required = false) String query,
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) Double minPrice,
+            @RequestParam(required = false) Double maxPrice,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(marketplaceService.searchItems(universityId, query, category, minPrice, maxPrice,
+                Math.max(page, 0), Math.min(Math.max(size, 1), 100)));
     }
 
     @DeleteMapping("/items/{id}")
@@ -1,8 +1,12 @@
 package com.uniconnect.backend.controller;
 
-import com.uniconnect.backend.entity.PYQ;
+import com.uniconnect.backend.dto.CursorPage;
+import com.uniconnect.backend.dto.PYQFilter;
+import com.uniconnect.backend.dto.PYQUploadJobView;
+import com.uniconnect.backend.dto.PYQView;
 import com.uniconnect.backend.service.PYQService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
@@ -10,6 +14,7 @@ import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/pyqs")
@@ -19,21 +24,66 @@ public class PYQController {
     private final PYQService pyqService;
 
     @PostMapping("/upload")
-    public ResponseEntity<PYQ> uploadPYQ(
+    public ResponseEntity<PYQUploadJobView> uploadPYQ(
             @RequestParam String subject,
             @RequestParam Integer year,
             @RequestParam String examType,
             @RequestParam("file") MultipartFile file,
             Authentication auth) throws IOException {
-        return ResponseEntity.ok(pyqService.uploadPYQ(subject, year, examType, file, auth));
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(pyqService.uploadPYQ(subject, year, examType, file, auth));
     }
 
+    @GetMapping("/jobs/{id}")
+    public ResponseEntity<PYQUploadJobView> getUploadJob(@PathVariable Long id, Authentication auth) {
+        return ResponseEntity.ok(pyqService.getUploadJob(id, auth));
+    }
+
+    // "year" is shorthand for yearFrom = yearTo = year. Without a cursor only the first page is
+    // returned; later pages need the keyset mode below
     @GetMapping
-    public ResponseEntity<List<PYQ>> searchPYQs(
+    public ResponseEntity<List<PYQView>> searchPYQs(
             @RequestParam Long universityId,
             @RequestParam(required = false) String subject,
-            @RequestParam(required = false) Integer year) {
-        return ResponseEntity.ok(pyqService.searchPYQs(universityId, subject, year));
+            @RequestParam(defaultValue = "false") boolean fuzzy,
+            @RequestParam(required = false) Integer year,
+            @RequestParam(required = false) Integer yearFrom,
+            @RequestParam(required = false) Integer yearTo,
+            @RequestParam(required = false) String examType,
+            @RequestParam(required = false) Long uploaderId,
+            @RequestParam(required = false) String q,
+            @RequestParam(defaultValue = "20") int size) {
+        PYQFilter filter = new PYQFilter(subject, fuzzy, year != null ? year : yearFrom, year != null ? year : yearTo,
+                examType, uploaderId, q);
+        return ResponseEntity.ok(pyqService.searchPYQs(universityId, filter, null, Math.min(Math.max(size, 1), 100))
+                .getContent());
+    }
+
+    // Keyset mode: selected whenever a "cursor" param is sent; an empty cursor returns the first page
+    @GetMapping(params = "cursor")
+    public ResponseEntity<CursorPage<PYQView>> searchPYQsByCursor(
+            @RequestParam Long universityId,
+            @RequestParam(required = false) String subject,
+            @RequestParam(defaultValue = "false") boolean fuzzy,
+            @RequestParam(required = false) Integer year,
+            @RequestParam(required = false) Integer yearFrom,
+            @RequestParam(required = false) Integer yearTo,
+            @RequestParam(required = false) String examType,
+            @RequestParam(required = false) Long uploaderId,
+            @RequestParam(required = false) String q,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        PYQFilter filter = new PYQFilter(subject, fuzzy, year != null ? year : yearFrom, year != null ? year : yearTo,
+                examType, uploaderId, q);
+        return ResponseEntity.ok(pyqService.searchPYQs(universityId, filter, cursor, Math.min(Math.max(size, 1), 100)));
+    }
+
+    @GetMapping("/subjects")
+    public ResponseEntity<List<Map<String, Object>>> getSubjects(
+            @RequestParam Long universityId,
+            @RequestParam(defaultValue = "") String prefix,
+            @RequestParam(defaultValue = "false") boolean fuzzy,
+            @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(pyqService.getSubjects(universityId, prefix, fuzzy, Math.min(Math.max(limit, 1), 50)));
     }
 
     @DeleteMapping("/{id}")
@@ -1,14 +1,17 @@
 package com.uniconnect.backend.controller;
 
+import com.uniconnect.backend.dto.CommentView;
+import com.uniconnect.backend.dto.CursorPage;
 import com.uniconnect.backend.dto.PostCreateRequest;
-import com.uniconnect.backend.entity.Comment;
-import com.uniconnect.backend.entity.Post;
+import com.uniconnect.backend.dto.PostView;
 import com.uniconnect.backend.entity.enums.PostType;
+import com.uniconnect.backend.service.ContributorLeaderboard;
 import com.uniconnect.backend.service.PostService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
@@ -22,26 +25,62 @@ public class PostController {
     private final PostService postService;
 
     @PostMapping
-    public ResponseEntity<Post> createPost(@Valid @RequestBody PostCreateRequest request, Authentication auth) {
+    public ResponseEntity<PostView> createPost(@Valid @RequestBody PostCreateRequest request, Authentication auth) {
         return ResponseEntity.ok(postService.createPost(request, auth));
     }
 
     @GetMapping("/feed")
-    public ResponseEntity<Page<Post>> getFeed(
+    public ResponseEntity<Page<PostView>> getFeed(
             @RequestParam Long universityId,
             @RequestParam(required = false) PostType type,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
-        return ResponseEntity.ok(postService.getFeed(universityId, type, page, size));
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "new") String sort,
+            Authentication auth) {
+        size = Math.min(Math.max(size, 1), 50);
+        if ("hot".equalsIgnoreCase(sort)) {
+            return ResponseEntity.ok(postService.getHotFeed(universityId, type, page, size, auth));
+        }
+        return ResponseEntity.ok(postService.getFeed(universityId, type, page, size, auth));
+    }
+
+    // Keyset mode: selected whenever a "cursor" param is sent; an empty cursor returns the first page
+    @GetMapping(value = "/feed", params = "cursor")
+    public ResponseEntity<CursorPage<PostView>> getFeedByCursor(
+            @RequestParam Long universityId,
+            @RequestParam(required = false) PostType type,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            Authentication auth) {
+        return ResponseEntity.ok(postService.getFeedByCursor(universityId, type, cursor, Math.min(Math.max(size, 1), 50),
+                auth));
+    }
+
+    // Cache internals are for operators, not for every signed-in student
+    @GetMapping("/feed/cache-stats")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> getFeedCacheStats() {
+        return ResponseEntity.ok(postService.getFeedCacheStats());
     }
 
     @PostMapping("/{id}/like")
-    public ResponseEntity<Post> likePost(@PathVariable Long id) {
-        return ResponseEntity.ok(postService.likePost(id));
+    public ResponseEntity<PostView> likePost(@PathVariable Long id, Authentication auth) {
+        return ResponseEntity.ok(postService.likePost(id, auth));
+    }
+
+    @DeleteMapping("/{id}/like")
+    public ResponseEntity<PostView> unlikePost(@PathVariable Long id, Authentication auth) {
+        return ResponseEntity.ok(postService.unlikePost(id, auth));
+    }
+
+    @GetMapping("/liked")
+    public ResponseEntity<java.util.Set<Long>> getLikedPostIds(@RequestParam java.util.List<Long> postIds,
+            Authentication auth) {
+        return ResponseEntity.ok(postService.getLikedPostIds(postIds, auth));
     }
 
     @PostMapping("/{id}/comment")
-    public ResponseEntity<Comment> addComment(
+    public ResponseEntity<CommentView> addComment(
             @PathVariable Long id,
             @RequestBody Map<String, String> request,
             Authentication auth) {
@@ -49,6 +88,14 @@ public class PostController {
         return ResponseEntity.ok(postService.addComment(id, content, auth));
     }
 
+    @GetMapping("/{id}/comments")
+    public ResponseEntity<CursorPage<CommentView>> getComments(
+            @PathVariable Long id,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(postService.getComments(id, cursor, Math.min(Math.max(size, 1), 100)));
+    }
+
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deletePost(@PathVariable Long id, Authentication auth) {
         postService.deletePost(id, auth);
@@ -63,7 +110,9 @@ public class PostController {
 
     @GetMapping("/top-contributors")
     public ResponseEntity<java.util.List<java.util.Map<String, Object>>> getTopContributors(
-            @RequestParam Long universityId) {
-        return ResponseEntity.ok(postService.getTopContributors(universityId));
+            @RequestParam Long universityId,
+            @RequestParam(defaultValue = "ALL") ContributorLeaderboard.Window window,
+            @RequestParam(defaultValue = "5") int limit) {
+        return ResponseEntity.ok(postService.getTopContributors(universityId, window, Math.min(Math.max(limit, 1), 50)));
     }
 }
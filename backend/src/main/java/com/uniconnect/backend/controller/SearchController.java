@@ -1,15 +1,12 @@
 package com.uniconnect.backend.controller;
 
-import com.uniconnect.backend.entity.MarketplaceItem;
-import com.uniconnect.backend.entity.Post;
-import com.uniconnect.backend.service.MarketplaceService;
-import com.uniconnect.backend.service.PostService;
+import com.uniconnect.backend.service.SearchService;
+import com.uniconnect.backend.service.SuggestIndex;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Page;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -18,21 +15,23 @@ import java.util.Map;
 @RequiredArgsConstructor
 public class SearchController {
 
-    private final PostService postService;
-    private final MarketplaceService marketplaceService;
+    private final SearchService searchService;
+    private final SuggestIndex suggestIndex;
 
     @GetMapping
     public ResponseEntity<Map<String, Object>> search(
             @RequestParam Long universityId,
-            @RequestParam String query) {
+            @RequestParam String query,
+            Authentication auth) {
 
-        Page<Post> posts = postService.searchPosts(universityId, query, 0, 10);
-        List<MarketplaceItem> items = marketplaceService.searchItems(universityId, query);
-
-        Map<String, Object> results = new HashMap<>();
-        results.put("posts", posts.getContent());
-        results.put("marketplace", items);
+        return ResponseEntity.ok(searchService.search(universityId, query, auth));
+    }
 
-        return ResponseEntity.ok(results);
+    @GetMapping("/suggest")
+    public ResponseEntity<List<Map<String, Object>>> suggest(
+            @RequestParam Long universityId,
+            @RequestParam String prefix,
+            @RequestParam(defaultValue = "8") int limit) {
+        return ResponseEntity.ok(suggestIndex.suggest(universityId, prefix, Math.min(Math.max(limit, 1), 20)));
     }
 }
@@ -0,0 +1,33 @@
+package com.uniconnect.backend.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+public class ChatInboxView {
+    private Long id;
+    private UserSummary partner;
+    private Long lastMessageId;
+    private String lastMessagePreview;
+    private Long lastSenderId;
+    private LocalDateTime lastActivityAt;
+    private Integer unreadCount;
+    // Filled in from PresenceService after the query
+    private boolean online;
+    private boolean typing;
+
+    // Used by JPQL constructor expressions
+    public ChatInboxView(Long id, Long partnerId, String partnerName, String partnerPicture, Long lastMessageId,
+            String lastMessagePreview, Long lastSenderId, LocalDateTime lastActivityAt, Integer unreadCount) {
+        this.id = id;
+        this.partner = new UserSummary(partnerId, partnerName, partnerPicture);
+        this.lastMessageId = lastMessageId;
+        this.lastMessagePreview = lastMessagePreview;
+        this.lastSenderId = lastSenderId;
+        this.lastActivityAt = lastActivityAt;
+        this.unreadCount = unreadCount;
+    }
+}
@@ -0,0 +1,40 @@
+package com.uniconnect.backend.dto;
+
+import com.uniconnect.backend.entity.ChatMessage;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+public class ChatMessageView {
+    private Long id;
+    private UserSummary sender;
+    private UserSummary receiver;
+    private String content;
+    private Long itemId;
+    private LocalDateTime createdAt;
+
+    // Used by JPQL constructor expressions
+    public ChatMessageView(Long id, Long senderId, String senderName, String senderPicture, Long receiverId,
+            String receiverName, String receiverPicture, String content, Long itemId, LocalDateTime createdAt) {
+        this.id = id;
+        this.sender = new UserSummary(senderId, senderName, senderPicture);
+        this.receiver = new UserSummary(receiverId, receiverName, receiverPicture);
+        this.content = content;
+        this.itemId = itemId;
+        this.createdAt = createdAt;
+    }
+
+    public static ChatMessageView from(ChatMessage message) {
+        ChatMessageView view = new ChatMessageView();
+        view.setId(message.getId());
+        view.setSender(UserSummary.from(message.getSender()));
+        view.setReceiver(UserSummary.from(message.getReceiver()));
+        view.setContent(message.getContent());
+        view.setItemId(message.getItem() != null ? message.getItem().getId() : null);
+        view.setCreatedAt(message.getCreatedAt());
+        return view;
+    }
+}
@@ -0,0 +1,17 @@
+package com.uniconnect.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChatPartnerView {
+    private Long id;
+    private String name;
+    private String profilePicture;
+    private boolean online;
+    // Typing to the user asking
+    private boolean typing;
+}
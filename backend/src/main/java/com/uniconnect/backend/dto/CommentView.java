@@ -0,0 +1,39 @@
+package com.uniconnect.backend.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.uniconnect.backend.entity.Comment;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+public class CommentView {
+    private Long id;
+    private Long postId;
+    private String content;
+
+    @JsonProperty("isAnonymous")
+    private boolean isAnonymous;
+
+    private LocalDateTime createdAt;
+    private UserSummary user;
+
+    // Used by JPQL constructor expressions
+    public CommentView(Long id, Long postId, String content, boolean isAnonymous, LocalDateTime createdAt,
+            Long userId, String userName, String userPicture) {
+        this.id = id;
+        this.postId = postId;
+        this.content = content;
+        this.isAnonymous = isAnonymous;
+        this.createdAt = createdAt;
+        this.user = new UserSummary(userId, userName, userPicture);
+    }
+
+    public static CommentView from(Comment comment) {
+        return new CommentView(comment.getId(), comment.getPost().getId(), comment.getContent(),
+                comment.isAnonymous(), comment.getCreatedAt(), comment.getUser().getId(),
+                comment.getUser().getName(), comment.getUser().getProfilePicture());
+    }
+}
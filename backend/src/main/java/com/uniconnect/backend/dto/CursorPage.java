@@ -0,0 +1,14 @@
+package com.uniconnect.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class CursorPage<T> {
+    private List<T> content;
+    private String nextCursor; // null when there are no more rows
+    private boolean hasNext;
+}
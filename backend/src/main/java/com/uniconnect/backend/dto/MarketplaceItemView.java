@@ -0,0 +1,37 @@
+package com.uniconnect.backend.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+public class MarketplaceItemView {
+    private Long id;
+    private Long universityId;
+    private String title;
+    private String description;
+    private Double price;
+    private String imageUrl;
+    private String category;
+    private String status;
+    private LocalDateTime createdAt;
+    private UserSummary seller;
+
+    // Used by JPQL constructor expressions
+    public MarketplaceItemView(Long id, Long universityId, String title, String description, Double price,
+            String imageUrl, String category, String status, LocalDateTime createdAt, Long sellerId,
+            String sellerName, String sellerPicture) {
+        this.id = id;
+        this.universityId = universityId;
+        this.title = title;
+        this.description = description;
+        this.price = price;
+        this.imageUrl = imageUrl;
+        this.category = category;
+        this.status = status;
+        this.createdAt = createdAt;
+        this.seller = new UserSummary(sellerId, sellerName, sellerPicture);
+    }
+}
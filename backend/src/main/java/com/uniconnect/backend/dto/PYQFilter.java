@@ -0,0 +1,20 @@
+package com.uniconnect.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PYQFilter {
+    private String subject;
+    // Tolerate typos in the subject instead of requiring a prefix
+    private boolean fuzzy;
+    private Integer yearFrom;
+    private Integer yearTo;
+    private String examType;
+    private Long uploaderId;
+    // Words or a quoted phrase to find in the papers' extracted text
+    private String query;
+}
@@ -0,0 +1,33 @@
+package com.uniconnect.backend.dto;
+
+import com.uniconnect.backend.entity.PYQUploadJob;
+import com.uniconnect.backend.entity.enums.UploadJobStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PYQUploadJobView {
+    private Long id;
+    private UploadJobStatus status;
+    private String subject;
+    private Integer year;
+    private String examType;
+    private Long fileSize;
+    private Integer attempts;
+    private String lastError;
+    private LocalDateTime nextAttemptAt;
+    private Long pyqId;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+
+    public static PYQUploadJobView from(PYQUploadJob job) {
+        return new PYQUploadJobView(job.getId(), job.getStatus(), job.getSubject(), job.getYear(), job.getExamType(),
+                job.getFileSize(), job.getAttempts(), job.getLastError(), job.getNextAttemptAt(), job.getPyqId(),
+                job.getCreatedAt(), job.getUpdatedAt());
+    }
+}
@@ -0,0 +1,28 @@
+package com.uniconnect.backend.dto;
+
+import com.uniconnect.backend.entity.PYQ;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PYQView {
+    private Long id;
+    private Long universityId;
+    private String subject;
+    private Integer year;
+    private String examType;
+    private String fileUrl;
+    private String previewUrl;
+    private LocalDateTime createdAt;
+    private UserSummary uploadedBy;
+
+    public static PYQView from(PYQ pyq) {
+        return new PYQView(pyq.getId(), pyq.getUniversity().getId(), pyq.getSubject(), pyq.getYear(),
+                pyq.getExamType(), pyq.getFileUrl(), pyq.getPreviewUrl(), pyq.getCreatedAt(), UserSummary.from(pyq.getUploadedBy()));
+    }
+}
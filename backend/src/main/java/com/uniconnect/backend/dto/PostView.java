@@ -0,0 +1,61 @@
+package com.uniconnect.backend.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.uniconnect.backend.entity.Post;
+import com.uniconnect.backend.entity.enums.PostType;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+public class PostView {
+    private Long id;
+    private Long universityId;
+    private PostType type;
+    private String content;
+
+    @JsonProperty("isAnonymous")
+    private boolean isAnonymous;
+
+    private Integer likeCount;
+    private boolean likedByMe;
+    private Integer commentCount;
+    private List<CommentView> comments = new ArrayList<>();
+    private LocalDateTime createdAt;
+    private UserSummary user;
+
+    // Used by JPQL constructor expressions
+    public PostView(Long id, Long universityId, PostType type, String content, boolean isAnonymous,
+            Integer likeCount, Integer commentCount, LocalDateTime createdAt, Long userId, String userName,
+            String userPicture) {
+        this.id = id;
+        this.universityId = universityId;
+        this.type = type;
+        this.content = content;
+        this.isAnonymous = isAnonymous;
+        this.likeCount = likeCount != null ? likeCount : 0;
+        this.commentCount = commentCount != null ? commentCount : 0;
+        this.createdAt = createdAt;
+        this.user = new UserSummary(userId, userName, userPicture);
+    }
+
+    public static PostView from(Post post) {
+        return new PostView(post.getId(), post.getUniversity().getId(), post.getType(), post.getContent(),
+                post.isAnonymous(), post.getLikeCount(), post.getCommentCount(), post.getCreatedAt(),
+                post.getUser().getId(),
+                post.getUser().getName(), post.getUser().getProfilePicture());
+    }
+
+    /** Per-request copy, so views shared through the feed cache are never mutated for one user. */
+    public PostView withLikes(int likeCount, boolean likedByMe) {
+        PostView copy = new PostView(id, universityId, type, content, isAnonymous, likeCount, commentCount,
+                createdAt, user.getId(), user.getName(), user.getProfilePicture());
+        copy.setComments(comments);
+        copy.setLikedByMe(likedByMe);
+        return copy;
+    }
+}
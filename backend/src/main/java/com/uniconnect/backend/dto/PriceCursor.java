@@ -0,0 +1,37 @@
+package com.uniconnect.backend.dto;
+
+import com.uniconnect.backend.exception.BadRequestException;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque {@code (price, id)} position for keyset pagination of listings sorted by price.
+ */
+@Data
+@AllArgsConstructor
+public class PriceCursor {
+
+    private Double price;
+    private Long id;
+
+    public String encode() {
+        String raw = price + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static PriceCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int sep = raw.indexOf('|');
+            if (sep < 0) {
+                throw new BadRequestException("Invalid cursor");
+            }
+            return new PriceCursor(Double.parseDouble(raw.substring(0, sep)), Long.parseLong(raw.substring(sep + 1)));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Invalid cursor");
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.uniconnect.backend.dto;
+
+import com.uniconnect.backend.entity.User;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserSummary {
+    private Long id;
+    private String name;
+    private String profilePicture;
+
+    public static UserSummary from(User user) {
+        return new UserSummary(user.getId(), user.getName(), user.getProfilePicture());
+    }
+}
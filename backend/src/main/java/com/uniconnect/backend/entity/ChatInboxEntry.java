@@ -0,0 +1,54 @@
+package com.uniconnect.backend.entity;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * One side of a conversation as it appears in its owner's inbox: the latest message
+ * and how many messages from the partner the owner has not read. Each conversation has
+ * two rows, upserted by {@code ChatMessageWriter} in the same batch that stores the message.
+ */
+@Entity
+@Table(name = "chat_inbox", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_chat_inbox_owner_partner", columnNames = { "owner_id", "partner_id" })
+}, indexes = {
+        @Index(name = "idx_chat_inbox_owner_activity", columnList = "owner_id, last_activity_at, id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonIgnoreProperties({ "hibernateLazyInitializer", "handler" })
+public class ChatInboxEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "owner_id", nullable = false)
+    private User owner;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "partner_id", nullable = false)
+    private User partner;
+
+    @Column(name = "last_message_id", nullable = false)
+    private Long lastMessageId;
+
+    @Column(name = "last_message_preview", length = 200)
+    private String lastMessagePreview;
+
+    @Column(name = "last_sender_id", nullable = false)
+    private Long lastSenderId;
+
+    @Column(name = "last_activity_at", nullable = false)
+    private LocalDateTime lastActivityAt;
+
+    @Column(name = "unread_count", nullable = false)
+    private Integer unreadCount = 0;
+}
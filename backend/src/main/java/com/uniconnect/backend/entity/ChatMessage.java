@@ -9,7 +9,11 @@ import lombok.NoArgsConstructor;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "chat_messages")
+@Table(name = "chat_messages", indexes = {
+        @Index(name = "idx_chat_messages_sender_id", columnList = "sender_id, id"),
+        @Index(name = "idx_chat_messages_receiver_id", columnList = "receiver_id, id"),
+        @Index(name = "idx_chat_messages_conversation", columnList = "user_low_id, user_high_id, id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -28,6 +32,13 @@ public class ChatMessage {
     @JoinColumn(name = "receiver_id", nullable = false)
     private User receiver;
 
+    // The conversation's key, the same whichever side sent the message: (lower user id, higher user id)
+    @Column(name = "user_low_id")
+    private Long userLowId;
+
+    @Column(name = "user_high_id")
+    private Long userHighId;
+
     @Column(nullable = false, columnDefinition = "TEXT")
     private String content;
 
@@ -41,5 +52,7 @@ public class ChatMessage {
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
+        userLowId = Math.min(sender.getId(), receiver.getId());
+        userHighId = Math.max(sender.getId(), receiver.getId());
     }
 }
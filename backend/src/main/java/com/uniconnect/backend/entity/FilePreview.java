@@ -0,0 +1,66 @@
+package com.uniconnect.backend.entity;
+
+import com.uniconnect.backend.entity.enums.PreviewStatus;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * First-page thumbnail and extracted text of a stored file, keyed like {@link FileBlob}
+ * by content hash, so every PYQ sharing the file shares one extraction.
+ */
+@Entity
+@Table(name = "file_previews", indexes = {
+        @Index(name = "idx_file_previews_status_updated", columnList = "status, updated_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FilePreview {
+
+    @Id
+    @Column(length = 64)
+    private String sha256;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private PreviewStatus status = PreviewStatus.PENDING;
+
+    @Column(name = "thumbnail_url")
+    private String thumbnailUrl;
+
+    @Column(name = "thumbnail_key")
+    private String thumbnailKey;
+
+    @Column(columnDefinition = "MEDIUMTEXT")
+    private String text;
+
+    @Column(name = "page_count")
+    private Integer pageCount;
+
+    @Column(nullable = false)
+    private Integer attempts = 0;
+
+    @Column(name = "last_error", length = 500)
+    private String lastError;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+        updatedAt = createdAt;
+    }
+
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+}
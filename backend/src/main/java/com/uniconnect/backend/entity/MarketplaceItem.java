@@ -9,7 +9,12 @@ import lombok.NoArgsConstructor;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "marketplace_items")
+@Table(name = "marketplace_items", indexes = {
+        @Index(name = "idx_marketplace_university_status_created", columnList = "university_id, status, created_at, id"),
+        @Index(name = "idx_marketplace_university_status_category_created", columnList = "university_id, status, category, created_at, id"),
+        @Index(name = "idx_marketplace_university_status_price", columnList = "university_id, status, price, id"),
+        @Index(name = "idx_marketplace_university_status_category_price", columnList = "university_id, status, category, price, id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -9,7 +9,14 @@ import lombok.NoArgsConstructor;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "pyqs")
+@Table(name = "pyqs", indexes = {
+        @Index(name = "idx_pyqs_university_created", columnList = "university_id, created_at, id"),
+        @Index(name = "idx_pyqs_university_subject_created", columnList = "university_id, subject, created_at, id"),
+        @Index(name = "idx_pyqs_university_year", columnList = "university_id, year"),
+        @Index(name = "idx_pyqs_university_exam_type_year", columnList = "university_id, exam_type, year"),
+        @Index(name = "idx_pyqs_uploaded_by_created", columnList = "uploaded_by, created_at, id"),
+        @Index(name = "idx_pyqs_file_sha256", columnList = "file_sha256")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -33,7 +40,17 @@ public class PYQ {
     private String fileUrl;
 
     @Column(name = "file_public_id")
-    private String filePublicId; // Cloudinary public ID
+    private String filePublicId; // Blob store key
+
+    @Column(name = "file_size")
+    private Long fileSize;
+
+    @Column(name = "file_sha256", length = 64)
+    private String fileSha256;
+
+    // First-page thumbnail, once the background preview stage has rendered it
+    @Column(name = "preview_url")
+    private String previewUrl;
 
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "uploaded_by", nullable = false)
@@ -0,0 +1,89 @@
+package com.uniconnect.backend.entity;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.uniconnect.backend.entity.enums.UploadJobStatus;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "pyq_upload_jobs", indexes = {
+        @Index(name = "idx_pyq_upload_jobs_status_next", columnList = "status, next_attempt_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonIgnoreProperties({ "hibernateLazyInitializer", "handler" })
+public class PYQUploadJob {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private UploadJobStatus status = UploadJobStatus.QUEUED;
+
+    @Column(nullable = false)
+    private String subject;
+
+    @Column(nullable = false)
+    private Integer year;
+
+    @Column(name = "exam_type")
+    private String examType;
+
+    // Spooled copy of the upload on this node's disk, deleted once the job ends
+    @Column(name = "file_path", nullable = false)
+    private String filePath;
+
+    // The node whose disk holds the spooled file; only that node works on the job
+    @Column(name = "node_id", length = 64)
+    private String nodeId;
+
+    @Column(name = "file_size")
+    private Long fileSize;
+
+    @Column(name = "file_sha256", length = 64)
+    private String fileSha256;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "uploaded_by", nullable = false)
+    private User uploadedBy;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "university_id", nullable = false)
+    private University university;
+
+    @Column(nullable = false)
+    private Integer attempts = 0;
+
+    @Column(name = "last_error", length = 500)
+    private String lastError;
+
+    @Column(name = "next_attempt_at")
+    private LocalDateTime nextAttemptAt;
+
+    @Column(name = "pyq_id")
+    private Long pyqId;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+        updatedAt = createdAt;
+    }
+
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+}
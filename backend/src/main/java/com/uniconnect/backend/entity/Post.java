@@ -8,11 +8,12 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
-import java.util.ArrayList;
-import java.util.List;
 
 @Entity
-@Table(name = "posts")
+@Table(name = "posts", indexes = {
+        @Index(name = "idx_posts_university_created", columnList = "university_id, created_at, id"),
+        @Index(name = "idx_posts_university_type_created", columnList = "university_id, type, created_at, id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -45,8 +46,9 @@ public class Post {
     @Column(name = "like_count")
     private Integer likeCount = 0;
 
-    @OneToMany(mappedBy = "post", cascade = CascadeType.ALL, orphanRemoval = true)
-    private List<Comment> comments = new ArrayList<>();
+    // Maintained by PostService.addComment/deleteComment so feeds never have to load comments to count them
+    @Column(name = "comment_count")
+    private Integer commentCount = 0;
 
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
@@ -0,0 +1,8 @@
+package com.uniconnect.backend.entity.enums;
+
+public enum PreviewStatus {
+    PENDING,
+    READY,
+    SKIPPED,
+    FAILED
+}
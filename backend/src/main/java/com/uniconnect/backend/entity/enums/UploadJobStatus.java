@@ -0,0 +1,9 @@
+package com.uniconnect.backend.entity.enums;
+
+public enum UploadJobStatus {
+    QUEUED,
+    UPLOADING,
+    RETRYING,
+    DONE,
+    FAILED
+}
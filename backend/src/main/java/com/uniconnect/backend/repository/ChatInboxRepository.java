@@ -0,0 +1,65 @@
+package com.uniconnect.backend.repository;
+
+import com.uniconnect.backend.dto.ChatInboxView;
+import com.uniconnect.backend.dto.UserSummary;
+import com.uniconnect.backend.entity.ChatInboxEntry;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface ChatInboxRepository extends JpaRepository<ChatInboxEntry, Long> {
+
+    String INBOX_VIEW = "SELECT new com.uniconnect.backend.dto.ChatInboxView(e.id, p.id, p.name, p.profilePicture, e.lastMessageId, e.lastMessagePreview, e.lastSenderId, e.lastActivityAt, e.unreadCount) FROM ChatInboxEntry e JOIN e.partner p ";
+
+    /**
+     * Records a message on the owner's side of a conversation, creating the row for its first
+     * message. The latest-message columns only move forward, so messages committing out of
+     * order cannot roll them back; last_message_id is assigned last because MySQL applies the
+     * assignments in order. Run in batches by {@code ChatMessageWriter}.
+     */
+    String RECORD = "INSERT INTO chat_inbox (owner_id, partner_id, last_message_id, last_message_preview, last_sender_id, last_activity_at, unread_count) "
+            + "VALUES (:ownerId, :partnerId, :messageId, :preview, :senderId, :activityAt, :unread) "
+            + "ON DUPLICATE KEY UPDATE "
+            + "last_message_preview = CASE WHEN VALUES(last_message_id) > last_message_id THEN VALUES(last_message_preview) ELSE last_message_preview END, "
+            + "last_sender_id = CASE WHEN VALUES(last_message_id) > last_message_id THEN VALUES(last_sender_id) ELSE last_sender_id END, "
+            + "last_activity_at = CASE WHEN VALUES(last_message_id) > last_message_id THEN VALUES(last_activity_at) ELSE last_activity_at END, "
+            + "unread_count = unread_count + VALUES(unread_count), "
+            + "last_message_id = GREATEST(last_message_id, VALUES(last_message_id))";
+
+    @Modifying
+    @Query("UPDATE ChatInboxEntry e SET e.unreadCount = 0 WHERE e.owner.id = :ownerId AND e.partner.id = :partnerId AND e.unreadCount > 0")
+    int markRead(@Param("ownerId") Long ownerId, @Param("partnerId") Long partnerId);
+
+    @Query(INBOX_VIEW + "WHERE e.owner.id = :ownerId ORDER BY e.lastActivityAt DESC, e.id DESC")
+    List<ChatInboxView> findInbox(@Param("ownerId") Long ownerId, Pageable pageable);
+
+    @Query(INBOX_VIEW + "WHERE e.owner.id = :ownerId AND (e.lastActivityAt < :activityAt OR (e.lastActivityAt = :activityAt AND e.id < :id)) ORDER BY e.lastActivityAt DESC, e.id DESC")
+    List<ChatInboxView> findInboxBefore(@Param("ownerId") Long ownerId, @Param("activityAt") LocalDateTime activityAt,
+            @Param("id") Long id, Pageable pageable);
+
+    boolean existsByOwnerIdAndPartnerId(Long ownerId, Long partnerId);
+
+    @Query("SELECT new com.uniconnect.backend.dto.UserSummary(p.id, p.name, p.profilePicture) FROM ChatInboxEntry e JOIN e.partner p WHERE e.owner.id = :ownerId ORDER BY e.lastActivityAt DESC, e.id DESC")
+    List<UserSummary> findPartners(@Param("ownerId") Long ownerId);
+
+    // Builds both sides of every existing conversation from its latest message; nothing counts as unread.
+    // Rows that already exist, e.g. from another node starting at the same time, are left as they are
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO chat_inbox (owner_id, partner_id, last_message_id, last_message_preview, last_sender_id, last_activity_at, unread_count) "
+            + "SELECT c.owner_id, c.partner_id, m.id, SUBSTRING(m.content, 1, 200), m.sender_id, m.created_at, 0 "
+            + "FROM (SELECT owner_id, partner_id, MAX(id) AS last_id FROM ("
+            + "SELECT sender_id AS owner_id, receiver_id AS partner_id, id FROM chat_messages "
+            + "UNION ALL SELECT receiver_id, sender_id, id FROM chat_messages) sides "
+            + "GROUP BY owner_id, partner_id) c JOIN chat_messages m ON m.id = c.last_id "
+            + "ON DUPLICATE KEY UPDATE last_message_id = last_message_id", nativeQuery = true)
+    int backfill();
+}
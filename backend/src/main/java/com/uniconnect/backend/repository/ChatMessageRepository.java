@@ -1,21 +1,42 @@
 package com.uniconnect.backend.repository;
 
+import com.uniconnect.backend.dto.ChatMessageView;
 import com.uniconnect.backend.entity.ChatMessage;
 import com.uniconnect.backend.entity.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 
 @Repository
 public interface ChatMessageRepository extends JpaRepository<ChatMessage, Long> {
 
-    @Query("SELECT m FROM ChatMessage m WHERE (m.sender = :user1 AND m.receiver = :user2) OR (m.sender = :user2 AND m.receiver = :user1) ORDER BY m.createdAt ASC")
-    List<ChatMessage> findConversation(@Param("user1") User user1, @Param("user2") User user2);
+    String MESSAGE_VIEW = "SELECT new com.uniconnect.backend.dto.ChatMessageView(m.id, s.id, s.name, s.profilePicture, r.id, r.name, r.profilePicture, m.content, i.id, m.createdAt) FROM ChatMessage m JOIN m.sender s JOIN m.receiver r LEFT JOIN m.item i ";
 
-    List<ChatMessage> findBySender(User sender);
+    // Conversation pages walk the (user_low_id, user_high_id, id) index from either end
+    @Query(MESSAGE_VIEW + "WHERE m.userLowId = :low AND m.userHighId = :high ORDER BY m.id DESC")
+    List<ChatMessageView> findLatest(@Param("low") Long low, @Param("high") Long high, Pageable pageable);
 
-    List<ChatMessage> findByReceiver(User receiver);
+    @Query(MESSAGE_VIEW + "WHERE m.userLowId = :low AND m.userHighId = :high AND m.id < :beforeId ORDER BY m.id DESC")
+    List<ChatMessageView> findBefore(@Param("low") Long low, @Param("high") Long high, @Param("beforeId") Long beforeId,
+            Pageable pageable);
+
+    @Query(MESSAGE_VIEW + "WHERE m.userLowId = :low AND m.userHighId = :high AND m.id > :afterId ORDER BY m.id ASC")
+    List<ChatMessageView> findAfter(@Param("low") Long low, @Param("high") Long high, @Param("afterId") Long afterId,
+            Pageable pageable);
+
+    // Backfills rows created before the conversation key existed
+    @Transactional
+    @Modifying
+    @Query("UPDATE ChatMessage m SET m.userLowId = CASE WHEN m.sender.id < m.receiver.id THEN m.sender.id ELSE m.receiver.id END, m.userHighId = CASE WHEN m.sender.id < m.receiver.id THEN m.receiver.id ELSE m.sender.id END WHERE m.userLowId IS NULL")
+    int backfillConversationKeys();
+
+    // Catch-up for clients that were disconnected from the chat socket
+    @Query(MESSAGE_VIEW + "WHERE (m.sender = :user OR m.receiver = :user) AND m.id > :sinceId ORDER BY m.id ASC")
+    List<ChatMessageView> findViewsSince(@Param("user") User user, @Param("sinceId") Long sinceId, Pageable pageable);
 }
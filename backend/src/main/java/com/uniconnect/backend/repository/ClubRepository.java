@@ -3,6 +3,8 @@ package com.uniconnect.backend.repository;
 import com.uniconnect.backend.entity.Club;
 import com.uniconnect.backend.entity.University;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -10,4 +12,7 @@ import java.util.List;
 @Repository
 public interface ClubRepository extends JpaRepository<Club, Long> {
     List<Club> findByUniversity(University university);
+
+    @Query("SELECT c.id, c.name FROM Club c WHERE c.university.id = :universityId")
+    List<Object[]> findNames(@Param("universityId") Long universityId);
 }
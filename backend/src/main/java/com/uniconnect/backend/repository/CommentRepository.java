@@ -1,9 +1,40 @@
 package com.uniconnect.backend.repository;
 
+import com.uniconnect.backend.dto.CommentView;
 import com.uniconnect.backend.entity.Comment;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
 @Repository
 public interface CommentRepository extends JpaRepository<Comment, Long> {
+
+    String COMMENT_VIEW = "SELECT new com.uniconnect.backend.dto.CommentView(c.id, c.post.id, c.content, c.isAnonymous, c.createdAt, u.id, u.name, u.profilePicture) FROM Comment c JOIN c.user u ";
+
+    @Query(COMMENT_VIEW + "WHERE c.id IN :ids ORDER BY c.createdAt ASC, c.id ASC")
+    List<CommentView> findViewsByIds(@Param("ids") Collection<Long> ids);
+
+    // Keyset pagination over the (post_id, created_at, id) index, oldest first
+    @Query(COMMENT_VIEW + "WHERE c.post.id = :postId ORDER BY c.createdAt ASC, c.id ASC")
+    Slice<CommentView> findViewsFirst(@Param("postId") Long postId, Pageable pageable);
+
+    @Query(COMMENT_VIEW + "WHERE c.post.id = :postId AND (c.createdAt > :createdAt OR (c.createdAt = :createdAt AND c.id > :id)) ORDER BY c.createdAt ASC, c.id ASC")
+    Slice<CommentView> findViewsAfter(@Param("postId") Long postId, @Param("createdAt") LocalDateTime createdAt,
+            @Param("id") Long id, Pageable pageable);
+
+    // Ids of the newest :limit comments of each post, one index range scan per post
+    @Query(value = "SELECT id FROM (SELECT c.id, ROW_NUMBER() OVER (PARTITION BY c.post_id ORDER BY c.created_at DESC, c.id DESC) AS rn FROM comments c WHERE c.post_id IN (:postIds)) ranked WHERE rn <= :limit", nativeQuery = true)
+    List<Long> findLatestIdsByPostIds(@Param("postIds") Collection<Long> postIds, @Param("limit") int limit);
+
+    @Modifying
+    @Query("DELETE FROM Comment c WHERE c.post.id = :postId")
+    int deleteByPostId(@Param("postId") Long postId);
 }
@@ -0,0 +1,24 @@
+package com.uniconnect.backend.repository;
+
+import com.uniconnect.backend.entity.FileBlob;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface FileBlobRepository extends JpaRepository<FileBlob, Long> {
+
+    boolean existsBySha256(String sha256);
+
+    Optional<FileBlob> findBySha256(String sha256);
+
+    // Reference count changes lock the row, so a release reaching zero cannot race a new reference
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b FROM FileBlob b WHERE b.sha256 = :sha256")
+    Optional<FileBlob> findBySha256ForUpdate(@Param("sha256") String sha256);
+}
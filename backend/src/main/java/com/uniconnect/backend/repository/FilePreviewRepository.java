@@ -0,0 +1,29 @@
+package com.uniconnect.backend.repository;
+
+import com.uniconnect.backend.entity.FilePreview;
+import com.uniconnect.backend.entity.enums.PreviewStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface FilePreviewRepository extends JpaRepository<FilePreview, String> {
+
+    @Query("SELECT f.sha256 FROM FilePreview f WHERE f.status = :status AND f.updatedAt < :before ORDER BY f.updatedAt")
+    List<String> findStale(@Param("status") PreviewStatus status, @Param("before") LocalDateTime before,
+            Pageable pageable);
+
+    // Starts an attempt only if the preview is still pending and nobody else started one since it was read
+    @Transactional
+    @Modifying
+    @Query("UPDATE FilePreview f SET f.attempts = f.attempts + 1, f.updatedAt = :now "
+            + "WHERE f.sha256 = :sha256 AND f.attempts = :attempts AND f.status = com.uniconnect.backend.entity.enums.PreviewStatus.PENDING")
+    int claim(@Param("sha256") String sha256, @Param("attempts") int attempts, @Param("now") LocalDateTime now);
+}
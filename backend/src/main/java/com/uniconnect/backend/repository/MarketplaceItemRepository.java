@@ -1,18 +1,60 @@
 package com.uniconnect.backend.repository;
 
+import com.uniconnect.backend.dto.MarketplaceItemView;
 import com.uniconnect.backend.entity.MarketplaceItem;
 import com.uniconnect.backend.entity.University;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
 public interface MarketplaceItemRepository extends JpaRepository<MarketplaceItem, Long> {
+    String ITEM_VIEW = "SELECT new com.uniconnect.backend.dto.MarketplaceItemView(i.id, i.university.id, i.title, i.description, i.price, i.imageUrl, i.category, i.status, i.createdAt, s.id, s.name, s.profilePicture) FROM MarketplaceItem i JOIN i.seller s ";
+
+    // A null category matches every category; the driver inlines the parameter, so MySQL folds the check away
+    String LISTING = ITEM_VIEW + "WHERE i.university.id = :universityId AND i.status = :status AND (:category IS NULL OR i.category = :category) ";
+
     List<MarketplaceItem> findByUniversityAndStatus(University university, String status);
 
     List<MarketplaceItem> findByUniversityAndCategoryAndStatus(University university, String category, String status);
 
-    List<MarketplaceItem> findByUniversityAndStatusAndTitleContainingIgnoreCaseOrDescriptionContainingIgnoreCase(
-            University university, String status, String titleQuery, String descQuery);
+    @Query(ITEM_VIEW + "WHERE i.id IN :ids")
+    List<MarketplaceItemView> findViewsByIds(@Param("ids") java.util.Collection<Long> ids);
+
+    @Query("SELECT i.id, i.title, i.description, i.category, i.price FROM MarketplaceItem i WHERE i.university.id = :universityId AND i.status = :status")
+    List<Object[]> findIndexRows(@Param("universityId") Long universityId, @Param("status") String status);
+
+    @Query(LISTING + "ORDER BY i.createdAt DESC, i.id DESC")
+    Slice<MarketplaceItemView> findNewestFirst(@Param("universityId") Long universityId, @Param("status") String status,
+            @Param("category") String category, Pageable pageable);
+
+    @Query(LISTING + "AND (i.createdAt < :createdAt OR (i.createdAt = :createdAt AND i.id < :id)) ORDER BY i.createdAt DESC, i.id DESC")
+    Slice<MarketplaceItemView> findNewestBefore(@Param("universityId") Long universityId, @Param("status") String status,
+            @Param("category") String category, @Param("createdAt") LocalDateTime createdAt, @Param("id") Long id,
+            Pageable pageable);
+
+    @Query(LISTING + "ORDER BY i.price ASC, i.id ASC")
+    Slice<MarketplaceItemView> findCheapestFirst(@Param("universityId") Long universityId, @Param("status") String status,
+            @Param("category") String category, Pageable pageable);
+
+    @Query(LISTING + "AND (i.price > :price OR (i.price = :price AND i.id > :id)) ORDER BY i.price ASC, i.id ASC")
+    Slice<MarketplaceItemView> findCheapestAfter(@Param("universityId") Long universityId, @Param("status") String status,
+            @Param("category") String category, @Param("price") Double price, @Param("id") Long id, Pageable pageable);
+
+    @Query(LISTING + "ORDER BY i.price DESC, i.id DESC")
+    Slice<MarketplaceItemView> findPriciestFirst(@Param("universityId") Long universityId, @Param("status") String status,
+            @Param("category") String category, Pageable pageable);
+
+    @Query(LISTING + "AND (i.price < :price OR (i.price = :price AND i.id < :id)) ORDER BY i.price DESC, i.id DESC")
+    Slice<MarketplaceItemView> findPriciestAfter(@Param("universityId") Long universityId, @Param("status") String status,
+            @Param("category") String category, @Param("price") Double price, @Param("id") Long id, Pageable pageable);
+
+    @Query("SELECT i.id, i.title FROM MarketplaceItem i WHERE i.university.id = :universityId AND i.status = :status")
+    List<Object[]> findTitles(@Param("universityId") Long universityId, @Param("status") String status);
 }
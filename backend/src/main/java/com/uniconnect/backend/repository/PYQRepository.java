@@ -2,16 +2,38 @@ package com.uniconnect.backend.repository;
 
 import com.uniconnect.backend.entity.PYQ;
 import com.uniconnect.backend.entity.University;
+import com.uniconnect.backend.entity.enums.PreviewStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 
 @Repository
-public interface PYQRepository extends JpaRepository<PYQ, Long> {
+public interface PYQRepository extends JpaRepository<PYQ, Long>, JpaSpecificationExecutor<PYQ> {
     List<PYQ> findByUniversity(University university);
 
     List<PYQ> findByUniversityAndSubjectContainingIgnoreCase(University university, String subject);
 
     List<PYQ> findByUniversityAndYear(University university, Integer year);
+
+    @Query("SELECT p.id, p.subject, p.createdAt FROM PYQ p WHERE p.university.id = :universityId")
+    List<Object[]> findSubjects(@Param("universityId") Long universityId);
+
+    @Query("SELECT p.id, p.university.id FROM PYQ p WHERE p.fileSha256 = :sha256")
+    List<Object[]> findIdsBySha256(@Param("sha256") String sha256);
+
+    @Modifying
+    @Query("UPDATE PYQ p SET p.previewUrl = :previewUrl WHERE p.fileSha256 = :sha256")
+    int updatePreviewUrl(@Param("sha256") String sha256, @Param("previewUrl") String previewUrl);
+
+    // Extracted text of the university's PYQs in id order, for loading the content index in batches
+    @Query("SELECT p.id, f.text FROM PYQ p, FilePreview f WHERE f.sha256 = p.fileSha256 AND p.university.id = :universityId AND f.status = :status AND f.text IS NOT NULL AND p.id > :afterId ORDER BY p.id")
+    Slice<Object[]> findContentAfter(@Param("universityId") Long universityId, @Param("status") PreviewStatus status,
+            @Param("afterId") Long afterId, Pageable pageable);
 }
@@ -0,0 +1,81 @@
+package com.uniconnect.backend.repository;
+
+import com.uniconnect.backend.entity.FilePreview;
+import com.uniconnect.backend.entity.PYQ;
+import com.uniconnect.backend.search.Tokenizer;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Composable filters for {@link PYQRepository}. Each one is null when its criterion
+ * is absent, which {@link Specification#where} and {@code and} simply skip.
+ */
+public final class PYQSpecifications {
+
+    private PYQSpecifications() {
+    }
+
+    // Fetches the uploader with the row for result queries; count queries must not fetch
+    public static Specification<PYQ> inUniversity(Long universityId) {
+        return (root, query, cb) -> {
+            if (query.getResultType() == PYQ.class) {
+                root.fetch("uploadedBy", JoinType.INNER);
+            }
+            return cb.equal(root.get("university").get("id"), universityId);
+        };
+    }
+
+    public static Specification<PYQ> subjectIn(Collection<String> subjects) {
+        return subjects == null ? null : (root, query, cb) -> root.get("subject").in(subjects);
+    }
+
+    public static Specification<PYQ> yearFrom(Integer year) {
+        return year == null ? null : (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("year"), year);
+    }
+
+    public static Specification<PYQ> yearTo(Integer year) {
+        return year == null ? null : (root, query, cb) -> cb.lessThanOrEqualTo(root.get("year"), year);
+    }
+
+    public static Specification<PYQ> examType(String examType) {
+        return examType == null || examType.isEmpty() ? null
+                : (root, query, cb) -> cb.equal(root.get("examType"), examType);
+    }
+
+    public static Specification<PYQ> uploadedBy(Long userId) {
+        return userId == null ? null : (root, query, cb) -> cb.equal(root.get("uploadedBy").get("id"), userId);
+    }
+
+    // Every word of the query somewhere in the extracted text; the content index answers this once built
+    public static Specification<PYQ> textContains(String text) {
+        List<String> words = Tokenizer.tokenize(text);
+        return words.isEmpty() ? null : (root, query, cb) -> {
+            Subquery<String> previews = query.subquery(String.class);
+            Root<FilePreview> preview = previews.from(FilePreview.class);
+            List<Predicate> predicates = new ArrayList<>();
+            predicates.add(cb.equal(preview.get("sha256"), root.get("fileSha256")));
+            for (String word : words) {
+                predicates.add(cb.like(cb.lower(preview.get("text")), "%" + word + "%"));
+            }
+            return cb.exists(previews.select(preview.get("sha256")).where(predicates.toArray(new Predicate[0])));
+        };
+    }
+
+    public static Specification<PYQ> idIn(Collection<Long> ids) {
+        return ids == null ? null : (root, query, cb) -> root.get("id").in(ids);
+    }
+
+    public static Specification<PYQ> before(LocalDateTime createdAt, Long id) {
+        return createdAt == null ? null : (root, query, cb) -> cb.or(
+                cb.lessThan(root.get("createdAt"), createdAt),
+                cb.and(cb.equal(root.get("createdAt"), createdAt), cb.lessThan(root.get("id"), id)));
+    }
+}
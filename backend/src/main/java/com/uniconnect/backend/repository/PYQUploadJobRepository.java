@@ -0,0 +1,32 @@
+package com.uniconnect.backend.repository;
+
+import com.uniconnect.backend.entity.PYQUploadJob;
+import com.uniconnect.backend.entity.enums.UploadJobStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface PYQUploadJobRepository extends JpaRepository<PYQUploadJob, Long> {
+
+    // Jobs without a node are from before jobs were owned, when there was only one
+    @Query("SELECT j.id FROM PYQUploadJob j WHERE (j.nodeId = :nodeId OR j.nodeId IS NULL) AND j.status IN :statuses AND (j.nextAttemptAt IS NULL OR j.nextAttemptAt <= :now) ORDER BY j.id")
+    List<Long> findDueIds(@Param("nodeId") String nodeId, @Param("statuses") Collection<UploadJobStatus> statuses,
+            @Param("now") LocalDateTime now, Pageable pageable);
+
+    // Starts an attempt only if nobody else started one since the job was read
+    @Transactional
+    @Modifying
+    @Query("UPDATE PYQUploadJob j SET j.status = com.uniconnect.backend.entity.enums.UploadJobStatus.UPLOADING, j.attempts = j.attempts + 1, j.nodeId = :nodeId, j.updatedAt = :now "
+            + "WHERE j.id = :id AND j.attempts = :attempts AND j.status IN :statuses")
+    int claim(@Param("id") Long id, @Param("attempts") int attempts, @Param("nodeId") String nodeId,
+            @Param("statuses") Collection<UploadJobStatus> statuses, @Param("now") LocalDateTime now);
+}
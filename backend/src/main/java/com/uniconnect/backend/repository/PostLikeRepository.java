@@ -0,0 +1,32 @@
+package com.uniconnect.backend.repository;
+
+import com.uniconnect.backend.entity.PostLike;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface PostLikeRepository extends JpaRepository<PostLike, Long> {
+
+    // One row per like, plus a row with a null user for each existing post without likes
+    @Query("SELECT p.id, pl.user.id FROM Post p LEFT JOIN PostLike pl ON pl.post.id = p.id WHERE p.id IN :postIds")
+    List<Object[]> findUserIdsByPostIds(@Param("postIds") Collection<Long> postIds);
+
+    @Query("SELECT pl.post.id FROM PostLike pl WHERE pl.user.id = :userId AND pl.post.id IN :postIds")
+    List<Long> findLikedPostIds(@Param("userId") Long userId, @Param("postIds") Collection<Long> postIds);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM PostLike pl WHERE pl.post.id = :postId AND pl.user.id = :userId")
+    int deleteByPostIdAndUserId(@Param("postId") Long postId, @Param("userId") Long userId);
+
+    @Modifying
+    @Query("DELETE FROM PostLike pl WHERE pl.post.id = :postId")
+    int deleteByPostId(@Param("postId") Long postId);
+}
@@ -1,11 +1,22 @@
 package com.uniconnect.backend.repository;
 
+import com.uniconnect.backend.dto.PostView;
 import com.uniconnect.backend.entity.Post;
 import com.uniconnect.backend.entity.University;
+import com.uniconnect.backend.entity.enums.PostType;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 
 @Repository
 public interface PostRepository extends JpaRepository<Post, Long> {
@@ -18,8 +29,83 @@ public interface PostRepository extends JpaRepository<Post, Long> {
                         String query,
                         Pageable pageable);
 
-        @org.springframework.data.jpa.repository.Query("SELECT p.user, COUNT(p) as postCount FROM Post p WHERE p.university = :university GROUP BY p.user ORDER BY postCount DESC")
-        java.util.List<Object[]> findTopContributors(
-                        @org.springframework.data.repository.query.Param("university") University university,
+        String POST_VIEW = "SELECT new com.uniconnect.backend.dto.PostView(p.id, p.university.id, p.type, p.content, p.isAnonymous, p.likeCount, p.commentCount, p.createdAt, u.id, u.name, u.profilePicture) FROM Post p JOIN p.user u ";
+
+        @Query(value = POST_VIEW + "WHERE p.university = :university ORDER BY p.createdAt DESC, p.id DESC",
+                        countQuery = "SELECT COUNT(p) FROM Post p WHERE p.university = :university")
+        Page<PostView> findFeedViews(@Param("university") University university, Pageable pageable);
+
+        @Query(value = POST_VIEW + "WHERE p.university = :university AND p.type = :type ORDER BY p.createdAt DESC, p.id DESC",
+                        countQuery = "SELECT COUNT(p) FROM Post p WHERE p.university = :university AND p.type = :type")
+        Page<PostView> findFeedViewsByType(@Param("university") University university, @Param("type") PostType type,
+                        Pageable pageable);
+
+        // Keyset pagination over (created_at, id): no COUNT query and no OFFSET scan
+        @Query(POST_VIEW + "WHERE p.university = :university ORDER BY p.createdAt DESC, p.id DESC")
+        Slice<PostView> findFeedViewsFirst(@Param("university") University university, Pageable pageable);
+
+        @Query(POST_VIEW + "WHERE p.university = :university AND p.type = :type ORDER BY p.createdAt DESC, p.id DESC")
+        Slice<PostView> findFeedViewsFirstByType(@Param("university") University university,
+                        @Param("type") PostType type, Pageable pageable);
+
+        @Query(POST_VIEW + "WHERE p.university = :university AND (p.createdAt < :createdAt OR (p.createdAt = :createdAt AND p.id < :id)) ORDER BY p.createdAt DESC, p.id DESC")
+        Slice<PostView> findFeedViewsBefore(@Param("university") University university,
+                        @Param("createdAt") LocalDateTime createdAt,
+                        @Param("id") Long id,
+                        Pageable pageable);
+
+        @Query(POST_VIEW + "WHERE p.university = :university AND p.type = :type AND (p.createdAt < :createdAt OR (p.createdAt = :createdAt AND p.id < :id)) ORDER BY p.createdAt DESC, p.id DESC")
+        Slice<PostView> findFeedViewsBeforeByType(@Param("university") University university,
+                        @Param("type") PostType type,
+                        @Param("createdAt") LocalDateTime createdAt,
+                        @Param("id") Long id,
                         Pageable pageable);
+
+        @Query(value = POST_VIEW + "WHERE p.university = :university AND LOWER(p.content) LIKE LOWER(CONCAT('%', :query, '%')) ORDER BY p.createdAt DESC, p.id DESC",
+                        countQuery = "SELECT COUNT(p) FROM Post p WHERE p.university = :university AND LOWER(p.content) LIKE LOWER(CONCAT('%', :query, '%'))")
+        Page<PostView> searchViews(@Param("university") University university, @Param("query") String query,
+                        Pageable pageable);
+
+        // A count not backfilled yet is taken from the comments, which already include this change
+        @Modifying
+        @Query("UPDATE Post p SET p.commentCount = CASE WHEN p.commentCount IS NULL THEN (SELECT COUNT(c) FROM Comment c WHERE c.post = p) ELSE p.commentCount + :delta END WHERE p.id = :postId")
+        int adjustCommentCount(@Param("postId") Long postId, @Param("delta") int delta);
+
+        // Backfills rows created before comment_count existed
+        @Transactional
+        @Modifying
+        @Query("UPDATE Post p SET p.commentCount = (SELECT COUNT(c) FROM Comment c WHERE c.post = p) WHERE p.commentCount IS NULL")
+        int backfillCommentCounts();
+
+        @Query(POST_VIEW + "WHERE p.id IN :ids")
+        List<PostView> findViewsByIds(@Param("ids") java.util.Collection<Long> ids);
+
+        @Query("SELECT p.id, p.createdAt, p.likeCount, p.commentCount FROM Post p WHERE p.university.id = :universityId AND p.createdAt >= :since")
+        List<Object[]> findScoringStatsSince(@Param("universityId") Long universityId,
+                        @Param("since") LocalDateTime since);
+
+        @Query("SELECT p.id, p.createdAt, p.likeCount, p.commentCount FROM Post p WHERE p.university.id = :universityId AND p.type = :type AND p.createdAt >= :since")
+        List<Object[]> findScoringStatsSinceByType(@Param("universityId") Long universityId,
+                        @Param("type") PostType type, @Param("since") LocalDateTime since);
+
+        @Query("SELECT u.id, u.name, COUNT(p) FROM Post p JOIN p.user u WHERE p.university.id = :universityId GROUP BY u.id, u.name")
+        List<Object[]> countPostsByAuthor(@Param("universityId") Long universityId);
+
+        @Query("SELECT p.user.id, p.createdAt FROM Post p WHERE p.university.id = :universityId AND p.createdAt >= :since")
+        List<Object[]> findAuthorsSince(@Param("universityId") Long universityId,
+                        @Param("since") LocalDateTime since);
+
+        @Query("SELECT p.id, p.content FROM Post p WHERE p.university.id = :universityId AND p.id > :afterId ORDER BY p.id")
+        Slice<Object[]> findContentAfter(@Param("universityId") Long universityId, @Param("afterId") Long afterId,
+                        Pageable pageable);
+
+        @Query("SELECT p.id, p.content FROM Post p WHERE p.university.id = :universityId AND p.createdAt >= :since AND p.id > :afterId ORDER BY p.id")
+        Slice<Object[]> findContentSince(@Param("universityId") Long universityId,
+                        @Param("since") LocalDateTime since, @Param("afterId") Long afterId, Pageable pageable);
+
+        @Query("SELECT p.id FROM Post p WHERE p.university.id = :universityId")
+        List<Long> findIdsByUniversityId(@Param("universityId") Long universityId);
+
+        @Query("SELECT p.id FROM Post p WHERE p.id IN :ids")
+        List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
 }
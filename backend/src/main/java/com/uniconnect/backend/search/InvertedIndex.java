@@ -0,0 +1,282 @@
+package com.uniconnect.backend.search;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Positional inverted index over short documents with BM25 ranking and quoted
+ * phrase queries. Not thread-safe; callers guard it with their own lock.
+ *
+ * <p>Segment format (all integers are unsigned LEB128 varints, ids and positions
+ * delta-encoded in ascending order):
+ * <pre>
+ * magic:int32 version:int32 maxDocId
+ * docCount { docIdDelta length }*
+ * termCount { term:utf docFreq { docIdDelta positionCount { positionDelta }* }* }*
+ * </pre>
+ */
+public class InvertedIndex {
+
+    public record Hit(long docId, double score) {
+    }
+
+    public record Result(int total, List<Hit> hits) {
+    }
+
+    private static final int MAGIC = 0x55435358; // "UCSX"
+    private static final int VERSION = 1;
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final Pattern PHRASE = Pattern.compile("\"([^\"]*)\"");
+
+    private static final class Doc {
+        final int length;
+        final String[] terms;
+
+        Doc(int length, String[] terms) {
+            this.length = length;
+            this.terms = terms;
+        }
+    }
+
+    private final Map<String, Map<Long, int[]>> postings = new HashMap<>();
+    private final Map<Long, Doc> docs = new HashMap<>();
+    private long totalLength;
+    private long maxDocId;
+
+    public void add(long docId, String text) {
+        remove(docId);
+        List<String> tokens = Tokenizer.tokenize(text);
+        Map<String, List<Integer>> positions = new HashMap<>();
+        for (int i = 0; i < tokens.size(); i++) {
+            positions.computeIfAbsent(tokens.get(i), t -> new ArrayList<>()).add(i);
+        }
+        positions.forEach((term, list) -> postings.computeIfAbsent(term, t -> new HashMap<>())
+                .put(docId, list.stream().mapToInt(Integer::intValue).toArray()));
+        docs.put(docId, new Doc(tokens.size(), positions.keySet().toArray(new String[0])));
+        totalLength += tokens.size();
+        maxDocId = Math.max(maxDocId, docId);
+    }
+
+    public void remove(long docId) {
+        Doc doc = docs.remove(docId);
+        if (doc == null) {
+            return;
+        }
+        for (String term : doc.terms) {
+            Map<Long, int[]> list = postings.get(term);
+            if (list != null) {
+                list.remove(docId);
+                if (list.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+        totalLength -= doc.length;
+    }
+
+    public Set<Long> docIds() {
+        return docs.keySet();
+    }
+
+    /** Highest id ever indexed; rows above it are new since this index was written. */
+    public long maxDocId() {
+        return maxDocId;
+    }
+
+    /**
+     * Every plain term and every quoted phrase of the query must match; matches are
+     * ranked by BM25 over all query terms.
+     */
+    public Result search(String query, int offset, int limit) {
+        Set<String> terms = new LinkedHashSet<>(Tokenizer.tokenize(query));
+        List<Hit> hits = new ArrayList<>();
+        double avgLength = docs.isEmpty() ? 1 : (double) totalLength / docs.size();
+        for (Long docId : matching(query)) {
+            hits.add(new Hit(docId, score(docId, terms, avgLength)));
+        }
+
+        hits.sort(Comparator.comparingDouble((Hit h) -> -h.score()).thenComparingLong(h -> -h.docId()));
+        int from = Math.min(offset, hits.size());
+        int to = Math.min(from + limit, hits.size());
+        return new Result(hits.size(), new ArrayList<>(hits.subList(from, to)));
+    }
+
+    /** Ids of the documents matching the query as {@link #search} does, unranked. */
+    public List<Long> matching(String query) {
+        List<List<String>> phrases = new ArrayList<>();
+        Matcher matcher = PHRASE.matcher(query);
+        while (matcher.find()) {
+            List<String> phrase = Tokenizer.tokenize(matcher.group(1));
+            if (phrase.size() > 1) {
+                phrases.add(phrase);
+            }
+        }
+        Set<String> terms = new LinkedHashSet<>(Tokenizer.tokenize(query));
+        if (terms.isEmpty()) {
+            return List.of();
+        }
+
+        List<Map<Long, int[]>> lists = new ArrayList<>();
+        for (String term : terms) {
+            Map<Long, int[]> list = postings.get(term);
+            if (list == null) {
+                return List.of();
+            }
+            lists.add(list);
+        }
+        lists.sort(Comparator.comparingInt(Map::size));
+
+        List<Long> matches = new ArrayList<>();
+        candidates: for (Long docId : lists.get(0).keySet()) {
+            for (int i = 1; i < lists.size(); i++) {
+                if (!lists.get(i).containsKey(docId)) {
+                    continue candidates;
+                }
+            }
+            for (List<String> phrase : phrases) {
+                if (!containsPhrase(docId, phrase)) {
+                    continue candidates;
+                }
+            }
+            matches.add(docId);
+        }
+        return matches;
+    }
+
+    private double score(Long docId, Set<String> terms, double avgLength) {
+        int length = docs.get(docId).length;
+        double score = 0;
+        for (String term : terms) {
+            Map<Long, int[]> list = postings.get(term);
+            int tf = list.get(docId).length;
+            double idf = Math.log(1 + (docs.size() - list.size() + 0.5) / (list.size() + 0.5));
+            score += idf * tf * (K1 + 1) / (tf + K1 * (1 - B + B * length / avgLength));
+        }
+        return score;
+    }
+
+    private boolean containsPhrase(Long docId, List<String> phrase) {
+        int[] first = postings.get(phrase.get(0)).get(docId);
+        outer: for (int start : first) {
+            for (int i = 1; i < phrase.size(); i++) {
+                int[] positions = postings.get(phrase.get(i)).get(docId);
+                if (Arrays.binarySearch(positions, start + i) < 0) {
+                    continue outer;
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    public void writeTo(DataOutputStream out) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        writeVarLong(out, maxDocId);
+
+        Long[] docIds = docs.keySet().toArray(new Long[0]);
+        Arrays.sort(docIds);
+        writeVarLong(out, docIds.length);
+        long previous = 0;
+        for (Long docId : docIds) {
+            writeVarLong(out, docId - previous);
+            writeVarLong(out, docs.get(docId).length);
+            previous = docId;
+        }
+
+        writeVarLong(out, postings.size());
+        for (Map.Entry<String, Map<Long, int[]>> term : postings.entrySet()) {
+            out.writeUTF(term.getKey());
+            Long[] ids = term.getValue().keySet().toArray(new Long[0]);
+            Arrays.sort(ids);
+            writeVarLong(out, ids.length);
+            previous = 0;
+            for (Long docId : ids) {
+                writeVarLong(out, docId - previous);
+                previous = docId;
+                int[] positions = term.getValue().get(docId);
+                writeVarLong(out, positions.length);
+                int last = 0;
+                for (int position : positions) {
+                    writeVarLong(out, position - last);
+                    last = position;
+                }
+            }
+        }
+    }
+
+    public static InvertedIndex readFrom(DataInputStream in) throws IOException {
+        if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+            throw new IOException("Not a search segment or unsupported version");
+        }
+        InvertedIndex index = new InvertedIndex();
+        index.maxDocId = readVarLong(in);
+
+        int docCount = (int) readVarLong(in);
+        Map<Long, Integer> lengths = new HashMap<>(docCount * 2);
+        long docId = 0;
+        for (int i = 0; i < docCount; i++) {
+            docId += readVarLong(in);
+            int length = (int) readVarLong(in);
+            lengths.put(docId, length);
+            index.totalLength += length;
+        }
+
+        Map<Long, List<String>> docTerms = new HashMap<>(docCount * 2);
+        int termCount = (int) readVarLong(in);
+        for (int t = 0; t < termCount; t++) {
+            String term = in.readUTF();
+            int docFreq = (int) readVarLong(in);
+            Map<Long, int[]> list = new HashMap<>(docFreq * 2);
+            docId = 0;
+            for (int d = 0; d < docFreq; d++) {
+                docId += readVarLong(in);
+                int[] positions = new int[(int) readVarLong(in)];
+                int last = 0;
+                for (int p = 0; p < positions.length; p++) {
+                    last += (int) readVarLong(in);
+                    positions[p] = last;
+                }
+                list.put(docId, positions);
+                docTerms.computeIfAbsent(docId, id -> new ArrayList<>()).add(term);
+            }
+            index.postings.put(term, list);
+        }
+
+        lengths.forEach((id, length) -> index.docs.put(id,
+                new Doc(length, docTerms.getOrDefault(id, List.of()).toArray(new String[0]))));
+        return index;
+    }
+
+    private static void writeVarLong(DataOutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    private static long readVarLong(DataInputStream in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = in.readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint in search segment");
+    }
+}
@@ -0,0 +1,210 @@
+package com.uniconnect.backend.search;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Weighted completion trie. Every node caches the best {@code topN} entries below it,
+ * so a lookup is a walk down the prefix and a copy of that list. Phrases are reachable
+ * from the start of each of their words ("ranger" completes "Hero Ranger Cycle").
+ * Not thread-safe; callers guard it with their own lock.
+ */
+public class PrefixTrie {
+
+    public static final class Entry {
+        private final String kind;
+        private final String key;
+        private final String text;
+        private int weight;
+
+        Entry(String kind, String key, String text) {
+            this.kind = kind;
+            this.key = key;
+            this.text = text;
+        }
+
+        public String getKind() {
+            return kind;
+        }
+
+        public String getText() {
+            return text;
+        }
+
+        public int getWeight() {
+            return weight;
+        }
+    }
+
+    private static final class Node {
+        final Map<Character, Node> children = new HashMap<>();
+        final List<Entry> terminals = new ArrayList<>(1);
+        final List<Entry> top = new ArrayList<>();
+    }
+
+    // Deeper prefixes are answered from the node at this depth and filtered
+    private static final int MAX_KEY_LENGTH = 32;
+
+    private static final Comparator<Entry> ORDER = Comparator.comparingInt((Entry e) -> -e.weight)
+            .thenComparing(e -> e.key)
+            .thenComparing(e -> e.kind);
+
+    private final int topN;
+    private final Node root = new Node();
+    private final Map<String, Entry> entries = new HashMap<>();
+
+    public PrefixTrie(int topN) {
+        this.topN = topN;
+    }
+
+    public static String normalize(String text) {
+        return text == null ? "" : text.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+
+    /** Adds one occurrence of a phrase of the given kind. */
+    public void increment(String kind, String text) {
+        String key = normalize(text);
+        if (key.isEmpty()) {
+            return;
+        }
+        Entry entry = entries.get(kind + '\0' + key);
+        boolean created = entry == null;
+        if (created) {
+            entry = new Entry(kind, key, text.trim());
+            entries.put(kind + '\0' + key, entry);
+        }
+        entry.weight++;
+
+        for (String suffix : suffixes(key)) {
+            List<Node> path = path(suffix, true);
+            if (created) {
+                path.get(path.size() - 1).terminals.add(entry);
+            }
+            for (Node node : path) {
+                promote(node, entry);
+            }
+        }
+    }
+
+    /** Removes one occurrence; the phrase disappears when its last occurrence does. */
+    public void decrement(String kind, String text) {
+        String key = normalize(text);
+        Entry entry = entries.get(kind + '\0' + key);
+        if (entry == null) {
+            return;
+        }
+        entry.weight--;
+        if (entry.weight <= 0) {
+            entries.remove(kind + '\0' + key);
+        }
+
+        for (String suffix : suffixes(key)) {
+            List<Node> path = path(suffix, false);
+            if (path == null) {
+                continue;
+            }
+            if (entry.weight <= 0) {
+                path.get(path.size() - 1).terminals.remove(entry);
+            }
+            // Bottom-up, so each parent merges children that are already correct
+            for (int i = path.size() - 1; i >= 0; i--) {
+                Node node = path.get(i);
+                if (node.top.contains(entry)) {
+                    recompute(node);
+                }
+                if (i > 0 && node.top.isEmpty() && node.children.isEmpty()) {
+                    path.get(i - 1).children.remove(suffix.charAt(i - 1));
+                }
+            }
+        }
+    }
+
+    public List<Entry> complete(String prefix, int limit) {
+        String key = normalize(prefix);
+        if (key.isEmpty()) {
+            return List.of();
+        }
+        Node node = root;
+        for (int i = 0; i < Math.min(key.length(), MAX_KEY_LENGTH) && node != null; i++) {
+            node = node.children.get(key.charAt(i));
+        }
+        if (node == null) {
+            return List.of();
+        }
+        List<Entry> result = new ArrayList<>(Math.min(limit, node.top.size()));
+        for (Entry entry : node.top) {
+            if (result.size() == limit) {
+                break;
+            }
+            if (key.length() <= MAX_KEY_LENGTH || suffixes(entry.key).stream().anyMatch(s -> s.startsWith(key))) {
+                result.add(entry);
+            }
+        }
+        return result;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private Set<String> suffixes(String key) {
+        Set<String> suffixes = new LinkedHashSet<>();
+        for (int i = 0; i < key.length(); i++) {
+            if (i == 0 || key.charAt(i - 1) == ' ') {
+                String suffix = key.substring(i);
+                suffixes.add(suffix.length() > MAX_KEY_LENGTH ? suffix.substring(0, MAX_KEY_LENGTH) : suffix);
+            }
+        }
+        return suffixes;
+    }
+
+    // Root first, then one node per character; null when the path does not exist and create is false
+    private List<Node> path(String suffix, boolean create) {
+        List<Node> path = new ArrayList<>(suffix.length() + 1);
+        Node node = root;
+        path.add(node);
+        for (int i = 0; i < suffix.length(); i++) {
+            Node child = node.children.get(suffix.charAt(i));
+            if (child == null) {
+                if (!create) {
+                    return null;
+                }
+                child = new Node();
+                node.children.put(suffix.charAt(i), child);
+            }
+            node = child;
+            path.add(node);
+        }
+        return path;
+    }
+
+    private void promote(Node node, Entry entry) {
+        if (!node.top.contains(entry)) {
+            if (node.top.size() >= topN && ORDER.compare(entry, node.top.get(node.top.size() - 1)) >= 0) {
+                return;
+            }
+            node.top.add(entry);
+        }
+        node.top.sort(ORDER);
+        if (node.top.size() > topN) {
+            node.top.remove(node.top.size() - 1);
+        }
+    }
+
+    private void recompute(Node node) {
+        Set<Entry> candidates = new LinkedHashSet<>(node.terminals);
+        for (Node child : node.children.values()) {
+            candidates.addAll(child.top);
+        }
+        List<Entry> sorted = new ArrayList<>(candidates);
+        sorted.sort(ORDER);
+        node.top.clear();
+        node.top.addAll(sorted.subList(0, Math.min(topN, sorted.size())));
+    }
+}
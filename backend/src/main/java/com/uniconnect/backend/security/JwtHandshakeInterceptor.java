@@ -0,0 +1,59 @@
+package com.uniconnect.backend.security;
+
+import com.uniconnect.backend.entity.User;
+import com.uniconnect.backend.repository.UserRepository;
+import io.jsonwebtoken.JwtException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.server.HandshakeInterceptor;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.util.Map;
+
+/**
+ * Authenticates WebSocket handshakes with the same JWT as the REST API. Browsers cannot
+ * set headers on a WebSocket request, so the token is passed as the {@code token} query
+ * parameter. The user's id is kept as a session attribute.
+ */
+@Component
+@RequiredArgsConstructor
+public class JwtHandshakeInterceptor implements HandshakeInterceptor {
+
+    public static final String USER_ID = "userId";
+
+    private final JwtUtil jwtUtil;
+    private final CustomUserDetailsService userDetailsService;
+    private final UserRepository userRepository;
+
+    @Override
+    public boolean beforeHandshake(ServerHttpRequest request, ServerHttpResponse response, WebSocketHandler wsHandler,
+            Map<String, Object> attributes) {
+        String token = UriComponentsBuilder.fromUri(request.getURI()).build().getQueryParams().getFirst("token");
+        if (token != null) {
+            try {
+                String email = jwtUtil.extractUsername(token);
+                UserDetails userDetails = userDetailsService.loadUserByUsername(email);
+                User user = userRepository.findByEmail(email).orElse(null);
+                if (user != null && jwtUtil.validateToken(token, userDetails)) {
+                    attributes.put(USER_ID, user.getId());
+                    return true;
+                }
+            } catch (JwtException | UsernameNotFoundException | IllegalArgumentException e) {
+                // Falls through to the rejection below
+            }
+        }
+        response.setStatusCode(HttpStatus.UNAUTHORIZED);
+        return false;
+    }
+
+    @Override
+    public void afterHandshake(ServerHttpRequest request, ServerHttpResponse response, WebSocketHandler wsHandler,
+            Exception exception) {
+    }
+}
@@ -0,0 +1,19 @@
+package com.uniconnect.backend.service;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Where uploaded files are kept. The backend is chosen with {@code storage.backend}:
+ * {@code cloudinary} (default) or {@code local}.
+ */
+public interface BlobStore {
+
+    /** A stored file: the URL clients fetch it from and the key it is deleted by. */
+    record StoredBlob(String url, String key) {
+    }
+
+    StoredBlob put(Path file, String folder) throws IOException;
+
+    void delete(String key) throws IOException;
+}
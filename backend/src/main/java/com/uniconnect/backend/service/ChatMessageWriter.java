@@ -0,0 +1,245 @@
+package com.uniconnect.backend.service;
+
+import com.uniconnect.backend.dto.ChatMessageView;
+import com.uniconnect.backend.exception.ServiceUnavailableException;
+import com.uniconnect.backend.repository.ChatInboxRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Group-commit writer for chat messages. Senders put messages on a bounded queue and a
+ * single writer thread takes whatever has accumulated, inserts it as one JDBC batch,
+ * updates the inbox rows it touches and commits once. While a commit is in flight the
+ * next batch builds up behind it, so throughput grows with load instead of being capped
+ * at one round trip per message. Batches commit in queue order, and ids are assigned in
+ * that order, so a conversation's messages keep the order they were sent in.
+ */
+@Slf4j
+@Component
+public class ChatMessageWriter {
+
+    /** When {@code sendMessage} answers: once the message is committed, or once it is queued. */
+    public enum AckMode {
+        FLUSH, ENQUEUE
+    }
+
+    private static final String INSERT_MESSAGE = "INSERT INTO chat_messages (sender_id, receiver_id, user_low_id, user_high_id, content, item_id, created_at) "
+            + "VALUES (:senderId, :receiverId, :lowId, :highId, :content, :itemId, :createdAt)";
+
+    private record Pending(ChatMessageView view, String preview, CompletableFuture<ChatMessageView> result) {
+    }
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final AckMode ackMode;
+    private final int maxBatch;
+    private final long lingerNanos;
+    private final long flushTimeoutMs;
+    private final BlockingQueue<Pending> queue;
+    private final Thread writer;
+    // Pushes stored messages to sockets off the writer thread; one thread keeps per-recipient order
+    private final ThreadPoolExecutor delivery;
+    // Held to check running and queue a message as one step, so nothing is queued once the writer may have stopped
+    private final Object intake = new Object();
+    private volatile boolean running = true;
+
+    public ChatMessageWriter(NamedParameterJdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+            @Value("${chat.ingest.ack-mode:FLUSH}") AckMode ackMode,
+            @Value("${chat.ingest.queue-capacity:10000}") int queueCapacity,
+            @Value("${chat.ingest.max-batch:500}") int maxBatch,
+            @Value("${chat.ingest.linger-ms:0}") long lingerMs,
+            @Value("${chat.ingest.flush-timeout-ms:5000}") long flushTimeoutMs,
+            @Value("${chat.ingest.delivery-queue-capacity:10000}") int deliveryQueueCapacity) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.ackMode = ackMode;
+        this.maxBatch = maxBatch;
+        this.lingerNanos = TimeUnit.MILLISECONDS.toNanos(lingerMs);
+        this.flushTimeoutMs = flushTimeoutMs;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+
+        this.writer = new Thread(this::run, "chat-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+
+        this.delivery = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(deliveryQueueCapacity), r -> {
+                    Thread thread = new Thread(r, "chat-deliver");
+                    thread.setDaemon(true);
+                    return thread;
+                }, (task, executor) -> {
+                    // Recipients pick the message up by id when they next catch up
+                    log.warn("Chat delivery queue is full, dropping a socket push");
+                });
+    }
+
+    public AckMode getAckMode() {
+        return ackMode;
+    }
+
+    public long getFlushTimeoutMs() {
+        return flushTimeoutMs;
+    }
+
+    /** Where callbacks that push stored messages to clients run, so socket I/O never holds up a commit. */
+    public Executor getDeliveryExecutor() {
+        return delivery;
+    }
+
+    /**
+     * Queues a message whose view has everything but its id. The future completes with the
+     * id set once the batch holding it has committed, or fails if it could not be written.
+     */
+    public CompletableFuture<ChatMessageView> submit(ChatMessageView view, String preview) {
+        Pending pending = new Pending(view, preview, new CompletableFuture<>());
+        synchronized (intake) {
+            if (!running || !queue.offer(pending)) {
+                throw new ServiceUnavailableException("Chat is busy, please try again");
+            }
+        }
+        return pending.result();
+    }
+
+    private void stop() {
+        synchronized (intake) {
+            running = false;
+        }
+    }
+
+    private void run() {
+        List<Pending> batch = new ArrayList<>(maxBatch);
+        while (running || !queue.isEmpty()) {
+            try {
+                Pending first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                // With no linger, the batch is whatever queued up during the previous commit
+                long deadline = System.nanoTime() + lingerNanos;
+                while (batch.size() < maxBatch) {
+                    if (queue.drainTo(batch, maxBatch - batch.size()) > 0) {
+                        continue;
+                    }
+                    long wait = deadline - System.nanoTime();
+                    Pending next = wait > 0 ? queue.poll(wait, TimeUnit.NANOSECONDS) : null;
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                stop();
+            }
+            if (!batch.isEmpty()) {
+                flush(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    private void flush(List<Pending> batch) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> write(batch));
+        } catch (RuntimeException e) {
+            if (batch.size() > 1) {
+                // One bad row (say, a user deleted meanwhile) must not lose the rest of the batch
+                log.warn("Chat batch of {} failed, writing its messages one by one: {}", batch.size(), e.getMessage());
+                batch.forEach(pending -> flush(List.of(pending)));
+            } else {
+                log.error("Failed to write chat message from user {}: {}", batch.get(0).view().getSender().getId(),
+                        e.getMessage());
+                batch.get(0).result().completeExceptionally(e);
+            }
+            return;
+        }
+        batch.forEach(pending -> pending.result().complete(pending.view()));
+    }
+
+    private void write(List<Pending> batch) {
+        SqlParameterSource[] messages = new SqlParameterSource[batch.size()];
+        for (int i = 0; i < batch.size(); i++) {
+            ChatMessageView view = batch.get(i).view();
+            Long senderId = view.getSender().getId();
+            Long receiverId = view.getReceiver().getId();
+            messages[i] = new MapSqlParameterSource()
+                    .addValue("senderId", senderId)
+                    .addValue("receiverId", receiverId)
+                    .addValue("lowId", Math.min(senderId, receiverId))
+                    .addValue("highId", Math.max(senderId, receiverId))
+                    .addValue("content", view.getContent())
+                    .addValue("itemId", view.getItemId())
+                    .addValue("createdAt", view.getCreatedAt());
+        }
+        KeyHolder keys = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(INSERT_MESSAGE, messages, keys, new String[] { "id" });
+        List<Map<String, Object>> ids = keys.getKeyList();
+        for (int i = 0; i < batch.size(); i++) {
+            // The key's column name depends on the driver; each row holds only the id
+            batch.get(i).view().setId(((Number) ids.get(i).values().iterator().next()).longValue());
+        }
+
+        // Both sides of each conversation in the batch, collapsed to one row update apiece
+        Map<String, MapSqlParameterSource> inbox = new LinkedHashMap<>();
+        for (Pending pending : batch) {
+            ChatMessageView view = pending.view();
+            record(inbox, view.getSender().getId(), view.getReceiver().getId(), pending, 0);
+            record(inbox, view.getReceiver().getId(), view.getSender().getId(), pending, 1);
+        }
+        jdbcTemplate.batchUpdate(ChatInboxRepository.RECORD, inbox.values().toArray(new SqlParameterSource[0]));
+    }
+
+    private static void record(Map<String, MapSqlParameterSource> inbox, Long ownerId, Long partnerId,
+            Pending pending, int unread) {
+        ChatMessageView view = pending.view();
+        MapSqlParameterSource row = inbox.get(ownerId + ":" + partnerId);
+        if (row == null) {
+            row = new MapSqlParameterSource()
+                    .addValue("ownerId", ownerId)
+                    .addValue("partnerId", partnerId)
+                    .addValue("unread", 0);
+            inbox.put(ownerId + ":" + partnerId, row);
+        }
+        row.addValue("messageId", view.getId())
+                .addValue("preview", pending.preview())
+                .addValue("senderId", view.getSender().getId())
+                .addValue("activityAt", view.getCreatedAt())
+                .addValue("unread", (Integer) row.getValue("unread") + unread);
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        // Stop taking messages and let the writer drain what was already acknowledged
+        stop();
+        writer.join(TimeUnit.SECONDS.toMillis(10));
+        // Whatever the writer did not get to in time fails rather than leaving its sender waiting
+        List<Pending> left = new ArrayList<>();
+        queue.drainTo(left);
+        if (!left.isEmpty()) {
+            log.error("Chat writer stopped with {} messages unwritten", left.size());
+            left.forEach(pending -> pending.result().completeExceptionally(
+                    new ServiceUnavailableException("Chat is shutting down, please try again")));
+        }
+        delivery.shutdown();
+        delivery.awaitTermination(5, TimeUnit.SECONDS);
+    }
+}
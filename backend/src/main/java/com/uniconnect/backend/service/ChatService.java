@@ -1,69 +1,223 @@
 package com.uniconnect.backend.service;
 
-import com.uniconnect.backend.entity.ChatMessage;
-import com.uniconnect.backend.entity.MarketplaceItem;
+import com.uniconnect.backend.dto.ChatInboxView;
+import com.uniconnect.backend.dto.ChatMessageView;
+import com.uniconnect.backend.dto.ChatPartnerView;
+import com.uniconnect.backend.dto.CursorPage;
+import com.uniconnect.backend.dto.KeysetCursor;
+import com.uniconnect.backend.dto.UserSummary;
 import com.uniconnect.backend.entity.User;
+import com.uniconnect.backend.exception.BadRequestException;
 import com.uniconnect.backend.exception.ResourceNotFoundException;
+import com.uniconnect.backend.repository.ChatInboxRepository;
 import com.uniconnect.backend.repository.ChatMessageRepository;
 import com.uniconnect.backend.repository.MarketplaceItemRepository;
 import com.uniconnect.backend.repository.UserRepository;
+import com.uniconnect.backend.websocket.EventBackplane;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 @Service
 @RequiredArgsConstructor
 public class ChatService {
 
+    private static final int PREVIEW_LENGTH = 200;
+
     private final ChatMessageRepository chatMessageRepository;
+    private final ChatInboxRepository chatInboxRepository;
     private final UserRepository userRepository;
     private final MarketplaceItemRepository marketplaceItemRepository;
-
-    @Transactional
-    public ChatMessage sendMessage(Long receiverId, Long itemId, String content, Authentication auth) {
+    private final ChatMessageWriter chatMessageWriter;
+    private final EventBackplane eventBackplane;
+    private final PresenceService presenceService;
+
+    /**
+     * Hands the message to the {@link ChatMessageWriter}. In FLUSH mode this returns once it is
+     * committed; otherwise, or if the commit takes too long, the view comes back without an id
+     * and clients pick the stored message up from the socket or a catch-up call.
+     */
+    public ChatMessageView sendMessage(Long receiverId, Long itemId, String content, Authentication auth) {
         User sender = userRepository.findByEmail(auth.getName())
                 .orElseThrow(() -> new ResourceNotFoundException("Sender not found"));
 
         User receiver = userRepository.findById(receiverId)
                 .orElseThrow(() -> new ResourceNotFoundException("Receiver not found"));
 
-        ChatMessage message = new ChatMessage();
-        message.setSender(sender);
-        message.setReceiver(receiver);
-        message.setContent(content);
+        ChatMessageView view = new ChatMessageView();
+        view.setSender(UserSummary.from(sender));
+        view.setReceiver(UserSummary.from(receiver));
+        view.setContent(content);
+        view.setItemId(itemId != null && marketplaceItemRepository.existsById(itemId) ? itemId : null);
+        view.setCreatedAt(LocalDateTime.now());
+
+        presenceService.stopTyping(sender.getId());
+        String preview = content != null && content.length() > PREVIEW_LENGTH ? content.substring(0, PREVIEW_LENGTH) : content;
+        CompletableFuture<ChatMessageView> stored = chatMessageWriter.submit(view, preview);
+        // The sender's other tabs get it too; clients ignore ids they already have
+        stored.thenAcceptAsync(message -> {
+            Map<String, Object> event = Map.of("type", "message", "message", message);
+            eventBackplane.publish(receiver.getId(), event);
+            eventBackplane.publish(sender.getId(), event);
+        }, chatMessageWriter.getDeliveryExecutor());
+
+        if (chatMessageWriter.getAckMode() == ChatMessageWriter.AckMode.ENQUEUE) {
+            return copyOf(view);
+        }
+        try {
+            return stored.get(chatMessageWriter.getFlushTimeoutMs(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            return copyOf(view);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return copyOf(view);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Failed to send message", e.getCause());
+        }
+    }
+
+    // The writer sets the id on its own view; the caller's copy stays without one until then
+    private static ChatMessageView copyOf(ChatMessageView view) {
+        ChatMessageView copy = new ChatMessageView();
+        copy.setSender(view.getSender());
+        copy.setReceiver(view.getReceiver());
+        copy.setContent(view.getContent());
+        copy.setItemId(view.getItemId());
+        copy.setCreatedAt(view.getCreatedAt());
+        return copy;
+    }
+
+    /** Messages to or from the user after the given id, oldest first, for clients catching up. */
+    public List<ChatMessageView> getMessagesSince(Long sinceId, int limit, Authentication auth) {
+        User user = userRepository.findByEmail(auth.getName())
+                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+
+        return chatMessageRepository.findViewsSince(user, sinceId, PageRequest.of(0, limit));
+    }
+
+    /**
+     * One page of a conversation, oldest first: the latest messages, or those just before
+     * or just after a message id.
+     */
+    public List<ChatMessageView> getConversation(Long otherUserId, Long beforeId, Long afterId, int limit,
+            Authentication auth) {
+        if (beforeId != null && afterId != null) {
+            throw new BadRequestException("Use either before or after, not both");
+        }
+        User user = userRepository.findByEmail(auth.getName())
+                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
 
-        if (itemId != null) {
-            MarketplaceItem item = marketplaceItemRepository.findById(itemId).orElse(null);
-            message.setItem(item);
+        if (!userRepository.existsById(otherUserId)) {
+            throw new ResourceNotFoundException("Other user not found");
         }
 
-        return chatMessageRepository.save(message);
+        long low = Math.min(user.getId(), otherUserId);
+        long high = Math.max(user.getId(), otherUserId);
+        PageRequest page = PageRequest.of(0, limit);
+        if (afterId != null) {
+            return chatMessageRepository.findAfter(low, high, afterId, page);
+        }
+        List<ChatMessageView> newestFirst = beforeId != null
+                ? chatMessageRepository.findBefore(low, high, beforeId, page)
+                : chatMessageRepository.findLatest(low, high, page);
+        List<ChatMessageView> messages = new ArrayList<>(newestFirst);
+        Collections.reverse(messages);
+        return messages;
     }
 
-    public List<ChatMessage> getConversation(Long otherUserId, Authentication auth) {
-        User user1 = userRepository.findByEmail(auth.getName())
+    public List<ChatPartnerView> getChatPartners(Authentication auth) {
+        User user = userRepository.findByEmail(auth.getName())
                 .orElseThrow(() -> new ResourceNotFoundException("User not found"));
 
-        User user2 = userRepository.findById(otherUserId)
-                .orElseThrow(() -> new ResourceNotFoundException("Other user not found"));
+        List<UserSummary> partners = chatInboxRepository.findPartners(user.getId());
+        Map<Long, PresenceService.Status> statuses = presenceService.statuses(user.getId(),
+                partners.stream().map(UserSummary::getId).toList());
+        return partners.stream().map(p -> {
+            PresenceService.Status status = statuses.get(p.getId());
+            return new ChatPartnerView(p.getId(), p.getName(), p.getProfilePicture(), status.online(), status.typing());
+        }).toList();
+    }
 
-        return chatMessageRepository.findConversation(user1, user2);
+    /** The user's conversations, most recent activity first, with their unread counts. */
+    @Transactional(readOnly = true)
+    public CursorPage<ChatInboxView> getInbox(String cursor, int size, Authentication auth) {
+        User user = userRepository.findByEmail(auth.getName())
+                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+
+        // One extra row tells whether there is a next page without a COUNT(*)
+        PageRequest page = PageRequest.of(0, size + 1);
+        List<ChatInboxView> rows;
+        if (cursor != null && !cursor.isEmpty()) {
+            KeysetCursor position = KeysetCursor.decode(cursor);
+            rows = chatInboxRepository.findInboxBefore(user.getId(), position.getCreatedAt(), position.getId(), page);
+        } else {
+            rows = chatInboxRepository.findInbox(user.getId(), page);
+        }
+        boolean hasNext = rows.size() > size;
+        List<ChatInboxView> content = rows.stream().limit(size).toList();
+        Map<Long, PresenceService.Status> statuses = presenceService.statuses(user.getId(),
+                content.stream().map(entry -> entry.getPartner().getId()).toList());
+        content.forEach(entry -> {
+            PresenceService.Status status = statuses.get(entry.getPartner().getId());
+            entry.setOnline(status.online());
+            entry.setTyping(status.typing());
+        });
+
+        String nextCursor = null;
+        if (hasNext) {
+            ChatInboxView last = content.get(content.size() - 1);
+            nextCursor = new KeysetCursor(last.getLastActivityAt(), last.getId()).encode();
+        }
+        return new CursorPage<>(content, nextCursor, hasNext);
     }
 
-    public List<User> getChatPartners(Authentication auth) {
+    @Transactional
+    public void markRead(Long otherUserId, Authentication auth) {
         User user = userRepository.findByEmail(auth.getName())
                 .orElseThrow(() -> new ResourceNotFoundException("User not found"));
 
-        List<ChatMessage> sent = chatMessageRepository.findBySender(user);
-        List<ChatMessage> received = chatMessageRepository.findByReceiver(user);
+        chatInboxRepository.markRead(user.getId(), otherUserId);
+    }
+
+    /**
+     * Keeps the user online for another presence TTL and, with {@code typingTo}, marks them typing
+     * to that partner. Clients throttle typing beats, so each one is passed on over the chat socket.
+     * Typing is only relayed to someone the user already has a conversation with.
+     */
+    public void heartbeat(Long typingTo, Authentication auth) {
+        User user = userRepository.findByEmail(auth.getName())
+                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
 
-        java.util.Set<User> partners = new java.util.HashSet<>();
-        sent.forEach(m -> partners.add(m.getReceiver()));
-        received.forEach(m -> partners.add(m.getSender()));
+        if (typingTo != null && !chatInboxRepository.existsByOwnerIdAndPartnerId(user.getId(), typingTo)) {
+            throw new BadRequestException("Not a chat partner");
+        }
+        presenceService.heartbeat(user.getId(), typingTo);
+        if (typingTo != null) {
+            eventBackplane.publish(typingTo, Map.of("type", "typing", "userId", user.getId(),
+                    "ttlMs", presenceService.getTypingTtlMs()));
+        }
+    }
 
-        return new java.util.ArrayList<>(partners);
+    // Runs while the context starts, before the web server takes any traffic
+    @PostConstruct
+    public void backfillConversationKeys() {
+        chatMessageRepository.backfillConversationKeys();
+        // Conversations from before the inbox existed
+        if (chatInboxRepository.count() == 0 && chatMessageRepository.count() > 0) {
+            chatInboxRepository.backfill();
+        }
     }
 }
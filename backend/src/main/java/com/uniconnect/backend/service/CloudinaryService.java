@@ -3,25 +3,35 @@ package com.uniconnect.backend.service;
 import com.cloudinary.Cloudinary;
 import com.cloudinary.utils.ObjectUtils;
 import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
-import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.nio.file.Path;
 import java.util.Map;
 
 @Service
 @RequiredArgsConstructor
-public class CloudinaryService {
+@ConditionalOnProperty(name = "storage.backend", havingValue = "cloudinary", matchIfMissing = true)
+public class CloudinaryService implements BlobStore {
 
     private final Cloudinary cloudinary;
 
-    public Map<String, Object> upload(MultipartFile file, String folder) throws IOException {
-        return cloudinary.uploader().upload(file.getBytes(),
+    // Given a File, the HTTP client streams the request body from disk instead of holding it in memory
+    @Override
+    public StoredBlob put(Path file, String folder) throws IOException {
+        Map<?, ?> result = cloudinary.uploader().upload(file.toFile(),
                 ObjectUtils.asMap(
                         "folder", folder,
                         "resource_type", "auto"));
+        if (result == null || result.get("secure_url") == null) {
+            throw new IOException("Cloudinary did not return a file URL");
+        }
+        return new StoredBlob(result.get("secure_url").toString(),
+                result.get("public_id") != null ? result.get("public_id").toString() : null);
     }
 
+    @Override
     public void delete(String publicId) throws IOException {
         cloudinary.uploader().destroy(publicId, ObjectUtils.emptyMap());
     }
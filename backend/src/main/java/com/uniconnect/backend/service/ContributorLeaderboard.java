@@ -0,0 +1,264 @@
+package com.uniconnect.backend.service;
+
+import com.uniconnect.backend.repository.PostRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-university post counts by author, kept sorted so the top K is a walk over
+ * the first K entries. Each board is built from the database once and then
+ * maintained from post creation and deletion.
+ */
+@Component
+public class ContributorLeaderboard {
+
+    public enum Window {
+        WEEK, ALL
+    }
+
+    private static final int WEEK_DAYS = 7;
+
+    private record Change(Long postId, Long userId, String name, LocalDateTime createdAt, long delta) {
+    }
+
+    private static final class Entry {
+        final Long userId;
+        long count;
+
+        Entry(Long userId) {
+            this.userId = userId;
+        }
+    }
+
+    private static final class Ranking {
+        private final Map<Long, Entry> entries = new HashMap<>();
+        private final TreeSet<Entry> sorted = new TreeSet<>(
+                Comparator.comparingLong((Entry e) -> -e.count).thenComparing(e -> e.userId));
+
+        void add(Long userId, long delta) {
+            Entry entry = entries.get(userId);
+            if (entry != null) {
+                sorted.remove(entry);
+            } else {
+                entry = new Entry(userId);
+                entries.put(userId, entry);
+            }
+            entry.count += delta;
+            if (entry.count > 0) {
+                sorted.add(entry);
+            } else {
+                entries.remove(userId);
+            }
+        }
+
+        List<Entry> top(int limit) {
+            List<Entry> top = new ArrayList<>(Math.min(limit, sorted.size()));
+            Iterator<Entry> it = sorted.iterator();
+            while (top.size() < limit && it.hasNext()) {
+                top.add(it.next());
+            }
+            return top;
+        }
+    }
+
+    private static final class Board {
+        final Ranking allTime = new Ranking();
+        final Ranking week = new Ranking();
+        // Per-day author counts backing the rolling week; whole days drop out of the ranking as they expire
+        final TreeMap<LocalDate, Map<Long, Long>> days = new TreeMap<>();
+        final Map<Long, String> names = new HashMap<>();
+        // Changes committed while a build runs, by post, which its snapshot may or may not include
+        final Map<Long, List<Change>> buffered = new LinkedHashMap<>();
+        boolean loaded;
+        boolean loading;
+    }
+
+    private final PostRepository postRepository;
+    // One consistent read for the counts and for which buffered posts they already include
+    private final TransactionTemplate snapshotTransaction;
+    private final Map<Long, Board> boards = new ConcurrentHashMap<>();
+
+    public ContributorLeaderboard(PostRepository postRepository, PlatformTransactionManager transactionManager) {
+        this.postRepository = postRepository;
+        this.snapshotTransaction = new TransactionTemplate(transactionManager);
+        this.snapshotTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.snapshotTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.snapshotTransaction.setReadOnly(true);
+    }
+
+    public List<Map<String, Object>> top(Long universityId, Window window, int limit) {
+        Board board = load(universityId);
+        synchronized (board) {
+            expire(board, LocalDate.now());
+            Ranking ranking = window == Window.WEEK ? board.week : board.allTime;
+            List<Map<String, Object>> result = new ArrayList<>();
+            for (Entry entry : ranking.top(limit)) {
+                Map<String, Object> map = new HashMap<>();
+                map.put("id", entry.userId);
+                map.put("name", board.names.get(entry.userId));
+                map.put("postCount", entry.count);
+                result.add(map);
+            }
+            return result;
+        }
+    }
+
+    public void recordPost(Long universityId, Long postId, Long userId, String name, LocalDateTime createdAt) {
+        TransactionCallbacks.afterCommit(() -> apply(universityId, new Change(postId, userId, name, createdAt, 1)));
+    }
+
+    public void removePost(Long universityId, Long postId, Long userId, LocalDateTime createdAt) {
+        TransactionCallbacks.afterCommit(() -> apply(universityId, new Change(postId, userId, null, createdAt, -1)));
+    }
+
+    private void apply(Long universityId, Change change) {
+        Board board = boards.get(universityId);
+        if (board == null) {
+            return;
+        }
+        synchronized (board) {
+            if (board.loaded) {
+                apply(board, change);
+            } else if (board.loading) {
+                board.buffered.computeIfAbsent(change.postId(), id -> new ArrayList<>()).add(change);
+            }
+        }
+    }
+
+    private static void apply(Board board, Change change) {
+        Long userId = change.userId();
+        long delta = change.delta();
+        if (change.name() != null) {
+            board.names.put(userId, change.name());
+        }
+        board.allTime.add(userId, delta);
+        LocalDate today = LocalDate.now();
+        expire(board, today);
+        LocalDate day = change.createdAt().toLocalDate();
+        if (!day.isBefore(windowStart(today))) {
+            Map<Long, Long> bucket = board.days.computeIfAbsent(day, d -> new HashMap<>());
+            long current = bucket.getOrDefault(userId, 0L);
+            if (current + delta > 0) {
+                bucket.put(userId, current + delta);
+            } else {
+                bucket.remove(userId);
+            }
+            if (current + delta >= 0) {
+                board.week.add(userId, delta);
+            }
+        }
+    }
+
+    private Board load(Long universityId) {
+        Board board = boards.computeIfAbsent(universityId, id -> new Board());
+        synchronized (board) {
+            while (board.loading) {
+                try {
+                    board.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted while loading leaderboard", e);
+                }
+            }
+            if (board.loaded) {
+                return board;
+            }
+            board.loading = true;
+        }
+
+        try {
+            snapshotTransaction.executeWithoutResult(tx -> {
+                LocalDate today = LocalDate.now();
+                List<Object[]> totals = postRepository.countPostsByAuthor(universityId);
+                List<Object[]> recent = postRepository.findAuthorsSince(universityId,
+                        windowStart(today).atStartOfDay());
+                // Buffered posts present in the same snapshot, asked until every buffered post has been checked
+                Set<Long> checked = new HashSet<>();
+                Set<Long> counted = new HashSet<>();
+                while (true) {
+                    List<Long> unchecked = new ArrayList<>();
+                    synchronized (board) {
+                        for (Long postId : board.buffered.keySet()) {
+                            if (!checked.contains(postId)) {
+                                unchecked.add(postId);
+                            }
+                        }
+                        if (unchecked.isEmpty()) {
+                            merge(board, totals, recent, counted);
+                            return;
+                        }
+                    }
+                    counted.addAll(postRepository.findExistingIds(unchecked));
+                    checked.addAll(unchecked);
+                }
+            });
+            return board;
+        } finally {
+            synchronized (board) {
+                board.loading = false;
+                board.buffered.clear();
+                board.notifyAll();
+            }
+        }
+    }
+
+    private static void merge(Board board, List<Object[]> totals, List<Object[]> recent, Set<Long> counted) {
+        for (Object[] row : totals) {
+            board.names.put((Long) row[0], (String) row[1]);
+            board.allTime.add((Long) row[0], (Long) row[2]);
+        }
+        for (Object[] row : recent) {
+            Long userId = (Long) row[0];
+            LocalDate day = ((LocalDateTime) row[1]).toLocalDate();
+            board.days.computeIfAbsent(day, d -> new HashMap<>()).merge(userId, 1L, Long::sum);
+            board.week.add(userId, 1);
+        }
+        // Each buffered post moves from what the snapshot counted to where its changes leave it
+        board.buffered.forEach((postId, changes) -> {
+            Change created = null;
+            boolean removed = false;
+            for (Change change : changes) {
+                if (change.delta() > 0) {
+                    created = change;
+                } else {
+                    removed = true;
+                }
+            }
+            long delta = (removed ? 0 : 1) - (counted.contains(postId) ? 1 : 0);
+            if (delta != 0) {
+                Change last = created != null ? created : changes.get(changes.size() - 1);
+                apply(board, new Change(postId, last.userId(), last.name(), last.createdAt(), delta));
+            }
+        });
+        board.buffered.clear();
+        board.loaded = true;
+    }
+
+    private static void expire(Board board, LocalDate today) {
+        LocalDate start = windowStart(today);
+        while (!board.days.isEmpty() && board.days.firstKey().isBefore(start)) {
+            board.days.pollFirstEntry().getValue().forEach((userId, count) -> board.week.add(userId, -count));
+        }
+    }
+
+    private static LocalDate windowStart(LocalDate today) {
+        return today.minusDays(WEEK_DAYS - 1);
+    }
+}
@@ -0,0 +1,187 @@
+package com.uniconnect.backend.service;
+
+import com.uniconnect.backend.dto.PostView;
+import com.uniconnect.backend.entity.enums.PostType;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded in-process cache of the first few feed pages of each university.
+ * Universities are kept in LRU order, and each holds a capped number of pages of a
+ * capped size. Every write to a university's posts bumps its version so that a read
+ * racing with the write cannot store a stale page. Flushed like counts are folded into
+ * cached pages in place; the flush bumps every version around its update, so a page
+ * read while it ran is never cached with a count from before it.
+ */
+@Component
+public class FeedCache {
+
+    public record PageKey(PostType type, int page, int size, boolean keyset) {
+    }
+
+    private static class UniversityFeeds {
+        volatile long version;
+        final Map<PageKey, CachedPage> pages = new ConcurrentHashMap<>();
+    }
+
+    private record CachedPage(Object value, List<PostView> posts, long version) {
+    }
+
+    private final int maxPages;
+    private final int maxPageSize;
+    private final int maxEntriesPerUniversity;
+    private final AtomicLong versions = new AtomicLong();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+    private final Map<Long, UniversityFeeds> universities;
+
+    public FeedCache(@Value("${feed.cache.max-universities:500}") int maxUniversities,
+            @Value("${feed.cache.max-pages:3}") int maxPages,
+            @Value("${feed.cache.max-page-size:50}") int maxPageSize,
+            @Value("${feed.cache.max-entries-per-university:32}") int maxEntriesPerUniversity) {
+        this.maxPages = maxPages;
+        this.maxPageSize = maxPageSize;
+        this.maxEntriesPerUniversity = maxEntriesPerUniversity;
+        this.universities = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, UniversityFeeds> eldest) {
+                if (size() > maxUniversities) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public boolean isCacheable(Long universityId, int page, int size) {
+        return universityId != null && page < maxPages && size <= maxPageSize;
+    }
+
+    /** Version to pass back to {@link #put}; must be read before querying the database. */
+    public synchronized long version(Long universityId) {
+        return universities.computeIfAbsent(universityId, id -> newFeeds()).version;
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T get(Long universityId, PageKey key) {
+        UniversityFeeds feeds;
+        synchronized (this) {
+            feeds = universities.get(universityId);
+        }
+        CachedPage cached = feeds != null ? feeds.pages.get(key) : null;
+        if (cached == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return (T) cached.value();
+    }
+
+    public void put(Long universityId, PageKey key, long version, Object value, List<PostView> posts) {
+        UniversityFeeds feeds;
+        synchronized (this) {
+            feeds = universities.get(universityId);
+        }
+        if (feeds == null || feeds.version != version) {
+            return;
+        }
+        // Unusual page shapes are served uncached once the university's share is used up
+        if (feeds.pages.size() >= maxEntriesPerUniversity && !feeds.pages.containsKey(key)) {
+            return;
+        }
+        feeds.pages.put(key, new CachedPage(value, posts, version));
+        // A concurrent invalidation may have landed between the check and the put
+        if (feeds.version != version) {
+            feeds.pages.remove(key);
+        }
+    }
+
+    /** Drops every cached page of the university once the current transaction commits. */
+    public void invalidate(Long universityId) {
+        TransactionCallbacks.afterCommit(() -> {
+            UniversityFeeds feeds;
+            synchronized (this) {
+                feeds = universities.get(universityId);
+            }
+            if (feeds != null) {
+                feeds.version = versions.incrementAndGet();
+                feeds.pages.clear();
+                invalidations.increment();
+            }
+        });
+    }
+
+    /**
+     * Called before a like flush writes to the database. Reads already running can then no
+     * longer cache their pages, and the returned mark tells pages cached during the flush
+     * apart from older ones in {@link #applyLikeDeltas}.
+     */
+    public synchronized long beginLikeFlush() {
+        long mark = versions.get();
+        universities.values().forEach(feeds -> feeds.version = versions.incrementAndGet());
+        return mark;
+    }
+
+    /**
+     * Folds flushed like deltas into cached posts so pages stay in step with the database.
+     * A page cached since {@code mark} may have read the count before or after the flush,
+     * so one holding a flushed post is dropped instead.
+     */
+    public void applyLikeDeltas(Map<Long, Long> deltas, long mark) {
+        List<UniversityFeeds> snapshot;
+        synchronized (this) {
+            snapshot = new ArrayList<>(universities.values());
+            // Reads that started before the update committed must not cache what they saw
+            snapshot.forEach(feeds -> feeds.version = versions.incrementAndGet());
+        }
+        for (UniversityFeeds feeds : snapshot) {
+            for (CachedPage page : feeds.pages.values()) {
+                if (page.version() > mark) {
+                    if (page.posts().stream().anyMatch(post -> deltas.containsKey(post.getId()))) {
+                        feeds.pages.values().remove(page);
+                    }
+                    continue;
+                }
+                for (PostView post : page.posts()) {
+                    Long delta = deltas.get(post.getId());
+                    if (delta != null) {
+                        post.setLikeCount((int) (post.getLikeCount() + delta));
+                    }
+                }
+            }
+        }
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new HashMap<>();
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        stats.put("hits", hitCount);
+        stats.put("misses", missCount);
+        stats.put("hitRatio", hitCount + missCount == 0 ? 0.0 : (double) hitCount / (hitCount + missCount));
+        stats.put("evictions", evictions.sum());
+        stats.put("invalidations", invalidations.sum());
+        synchronized (this) {
+            stats.put("universities", universities.size());
+        }
+        return stats;
+    }
+
+    private UniversityFeeds newFeeds() {
+        UniversityFeeds feeds = new UniversityFeeds();
+        feeds.version = versions.incrementAndGet();
+        return feeds;
+    }
+}
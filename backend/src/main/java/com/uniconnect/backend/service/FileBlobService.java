@@ -0,0 +1,100 @@
+package com.uniconnect.backend.service;
+
+import com.uniconnect.backend.entity.FileBlob;
+import com.uniconnect.backend.repository.FileBlobRepository;
+import com.uniconnect.backend.repository.FilePreviewRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Content-addressed file storage. Files are keyed by the SHA-256 of their content, so a
+ * paper uploaded again is not stored again: it takes another reference to the existing
+ * blob, and the stored object is destroyed only when its last reference is released,
+ * together with the file's preview.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class FileBlobService {
+
+    private final FileBlobRepository fileBlobRepository;
+    private final FilePreviewRepository filePreviewRepository;
+    private final BlobStore blobStore;
+
+    /** Whether content with this hash is already stored, so it need not be uploaded. */
+    @Transactional(readOnly = true)
+    public boolean isStored(String sha256) {
+        return sha256 != null && fileBlobRepository.existsBySha256(sha256);
+    }
+
+    /**
+     * Takes a reference to the blob with this hash. When none exists, the given fresh upload
+     * becomes the blob; when one does, a fresh upload is redundant and destroyed after commit.
+     * Empty when nothing is stored and there is no upload to register, which means the blob
+     * was released since {@link #isStored} was checked.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public Optional<FileBlob> acquire(String sha256, long size, BlobStore.StoredBlob upload) {
+        Optional<FileBlob> existing = fileBlobRepository.findBySha256ForUpdate(sha256);
+        if (existing.isPresent()) {
+            FileBlob blob = existing.get();
+            blob.setRefCount(blob.getRefCount() + 1);
+            if (upload != null) {
+                destroyAfterCommit(upload.key());
+            }
+            return Optional.of(blob);
+        }
+        if (upload == null) {
+            return Optional.empty();
+        }
+
+        FileBlob blob = new FileBlob();
+        blob.setSha256(sha256);
+        blob.setFileUrl(upload.url());
+        blob.setPublicId(upload.key());
+        blob.setSize(size);
+        blob.setRefCount(1);
+        // A concurrent first upload of the same content fails here on the unique hash; the caller retries
+        return Optional.of(fileBlobRepository.saveAndFlush(blob));
+    }
+
+    /** Drops the reference a PYQ holds; the stored object goes with the last one. */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void release(String sha256, String publicId) {
+        FileBlob blob = sha256 != null ? fileBlobRepository.findBySha256ForUpdate(sha256).orElse(null) : null;
+        if (blob == null || !Objects.equals(blob.getPublicId(), publicId)) {
+            // Stored before deduplication, so the object belongs to this PYQ alone
+            destroyAfterCommit(publicId);
+            return;
+        }
+        blob.setRefCount(blob.getRefCount() - 1);
+        if (blob.getRefCount() <= 0) {
+            fileBlobRepository.delete(blob);
+            destroyAfterCommit(blob.getPublicId());
+            filePreviewRepository.findById(sha256).ifPresent(preview -> {
+                filePreviewRepository.delete(preview);
+                destroyAfterCommit(preview.getThumbnailKey());
+            });
+        }
+    }
+
+    private void destroyAfterCommit(String publicId) {
+        if (publicId == null) {
+            return;
+        }
+        TransactionCallbacks.afterCommit(() -> {
+            try {
+                blobStore.delete(publicId);
+            } catch (IOException e) {
+                log.warn("Failed to delete file {} from storage: {}", publicId, e.getMessage());
+            }
+        });
+    }
+}
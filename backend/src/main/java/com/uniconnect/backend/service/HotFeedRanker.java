@@ -0,0 +1,232 @@
+package com.uniconnect.backend.service;
+
+import com.uniconnect.backend.entity.enums.PostType;
+import com.uniconnect.backend.repository.PostRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * "Hot" ordering for the feed. A post's score is
+ * {@code log10(1 + likes + 2 * comments) + createdAt / decaySeconds}: age decay is
+ * expressed as a head start for newer posts, so a score only changes when the post
+ * itself does and rankings never need a periodic re-sort. Each university keeps its
+ * top K posts (overall and per type), updated by a background thread from post events.
+ * A ranking is built from the database on first use; events that arrive meanwhile are
+ * buffered and replayed on top before it is published.
+ */
+@Slf4j
+@Component
+public class HotFeedRanker {
+
+    private record Event(Long universityId, Long postId, PostType type, LocalDateTime createdAt, long likes,
+            long comments, boolean removed) {
+    }
+
+    private record RankingKey(Long universityId, PostType type) {
+    }
+
+    private static final class Entry {
+        final Long postId;
+        final double score;
+
+        Entry(Long postId, double score) {
+            this.postId = postId;
+            this.score = score;
+        }
+    }
+
+    private static final class Ranking {
+        // Held while the ranking is built, so concurrent first readers wait for one build
+        final Object build = new Object();
+        final List<Event> buffered = new ArrayList<>();
+        volatile boolean ready;
+        final Map<Long, Entry> entries = new HashMap<>();
+        final TreeSet<Entry> sorted = new TreeSet<>(
+                Comparator.comparingDouble((Entry e) -> -e.score).thenComparing(e -> -e.postId));
+
+        void put(Long postId, double score, int capacity) {
+            remove(postId);
+            if (sorted.size() >= capacity && score <= sorted.last().score) {
+                return;
+            }
+            Entry entry = new Entry(postId, score);
+            entries.put(postId, entry);
+            sorted.add(entry);
+            if (sorted.size() > capacity) {
+                entries.remove(sorted.pollLast().postId);
+            }
+        }
+
+        void remove(Long postId) {
+            Entry entry = entries.remove(postId);
+            if (entry != null) {
+                sorted.remove(entry);
+            }
+        }
+    }
+
+    private final PostRepository postRepository;
+    private final int topK;
+    private final double decaySeconds;
+    private final int windowDays;
+    private final Map<RankingKey, Ranking> rankings = new ConcurrentHashMap<>();
+    private final BlockingQueue<Event> events;
+    private final LongAdder dropped = new LongAdder();
+    private final Thread scorer;
+
+    public HotFeedRanker(PostRepository postRepository,
+            @Value("${feed.hot.top-k:500}") int topK,
+            @Value("${feed.hot.decay-seconds:45000}") double decaySeconds,
+            @Value("${feed.hot.window-days:7}") int windowDays,
+            @Value("${feed.hot.queue-capacity:10000}") int queueCapacity) {
+        this.postRepository = postRepository;
+        this.topK = topK;
+        this.decaySeconds = decaySeconds;
+        this.windowDays = windowDays;
+        this.events = new ArrayBlockingQueue<>(queueCapacity);
+        this.scorer = new Thread(this::drain, "hot-feed-scorer");
+        this.scorer.setDaemon(true);
+        this.scorer.start();
+    }
+
+    /** Publishes the current totals of a post; the scorer folds them in asynchronously. */
+    public void postChanged(Long universityId, Long postId, PostType type, LocalDateTime createdAt, long likes,
+            long comments) {
+        TransactionCallbacks.afterCommit(
+                () -> offer(new Event(universityId, postId, type, createdAt, likes, comments, false)));
+    }
+
+    public void postRemoved(Long universityId, Long postId, PostType type) {
+        TransactionCallbacks.afterCommit(() -> offer(new Event(universityId, postId, type, null, 0, 0, true)));
+    }
+
+    /** Post ids of one page of the hot feed, best first, plus the number of ranked posts. */
+    public Map.Entry<List<Long>, Integer> page(Long universityId, PostType type, int page, int size) {
+        Ranking ranking = load(new RankingKey(universityId, type));
+        synchronized (ranking) {
+            List<Long> ids = new ArrayList<>(size);
+            Iterator<Entry> it = ranking.sorted.iterator();
+            for (int skip = page * size; skip > 0 && it.hasNext(); skip--) {
+                it.next();
+            }
+            while (ids.size() < size && it.hasNext()) {
+                ids.add(it.next().postId);
+            }
+            return Map.entry(ids, ranking.sorted.size());
+        }
+    }
+
+    private Ranking load(RankingKey key) {
+        // Registered before the query, so the scorer buffers events the query may not see
+        Ranking ranking = rankings.computeIfAbsent(key, k -> new Ranking());
+        if (ranking.ready) {
+            return ranking;
+        }
+        synchronized (ranking.build) {
+            if (ranking.ready) {
+                return ranking;
+            }
+            List<Object[]> rows;
+            try {
+                // Anything older than the window cannot outscore a fresh post, so it is never read
+                LocalDateTime since = LocalDateTime.now().minusDays(windowDays);
+                rows = key.type() != null
+                        ? postRepository.findScoringStatsSinceByType(key.universityId(), key.type(), since)
+                        : postRepository.findScoringStatsSince(key.universityId(), since);
+            } catch (RuntimeException e) {
+                // Stops the buffering; the next request starts over
+                rankings.remove(key, ranking);
+                throw e;
+            }
+            synchronized (ranking) {
+                for (Object[] row : rows) {
+                    ranking.put((Long) row[0], score((LocalDateTime) row[1], toLong(row[2]), toLong(row[3])), topK);
+                }
+                // Totals are absolute and buffered in order, so the latest event per post wins
+                ranking.buffered.forEach(event -> apply(ranking, event));
+                ranking.buffered.clear();
+                ranking.ready = true;
+            }
+        }
+        return ranking;
+    }
+
+    private void offer(Event event) {
+        if (!events.offer(event)) {
+            // Scores are absolute, so the next event for this post repairs whatever was dropped
+            dropped.increment();
+        }
+    }
+
+    private void drain() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                Event event = events.poll(1, TimeUnit.SECONDS);
+                if (event != null) {
+                    apply(event);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (RuntimeException e) {
+                log.error("Failed to apply hot feed event: {}", e.getMessage());
+            }
+        }
+    }
+
+    private void apply(Event event) {
+        for (RankingKey key : List.of(new RankingKey(event.universityId(), null),
+                new RankingKey(event.universityId(), event.type()))) {
+            // Only rankings in use are maintained; the rest are read fresh on first use
+            Ranking ranking = rankings.get(key);
+            if (ranking == null) {
+                continue;
+            }
+            synchronized (ranking) {
+                if (ranking.ready) {
+                    apply(ranking, event);
+                } else {
+                    ranking.buffered.add(event);
+                }
+            }
+        }
+    }
+
+    private void apply(Ranking ranking, Event event) {
+        if (event.removed()) {
+            ranking.remove(event.postId());
+        } else {
+            ranking.put(event.postId(), score(event.createdAt(), event.likes(), event.comments()), topK);
+        }
+    }
+
+    private double score(LocalDateTime createdAt, long likes, long comments) {
+        double engagement = Math.log10(1 + Math.max(0, likes) + 2 * Math.max(0, comments));
+        return engagement + createdAt.toEpochSecond(ZoneOffset.UTC) / decaySeconds;
+    }
+
+    private static long toLong(Object value) {
+        return value != null ? ((Number) value).longValue() : 0;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scorer.interrupt();
+    }
+}
@@ -0,0 +1,98 @@
+package com.uniconnect.backend.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Write-behind like counter. Likes land in a {@link LongAdder} per post and are
+ * written to {@code posts.like_count} in one transactional JDBC batch per flush
+ * interval, so a hot post never serializes requests on its row lock.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class LikeCounter {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final FeedCache feedCache;
+    private final Map<Long, LongAdder> pending = new ConcurrentHashMap<>();
+    private final Map<Long, Long> inFlight = new ConcurrentHashMap<>();
+
+    public void add(Long postId, long delta) {
+        // Under the key's lock, so a like never lands on a counter the flush is retiring
+        pending.compute(postId, (id, counter) -> {
+            LongAdder target = counter != null ? counter : new LongAdder();
+            target.add(delta);
+            return target;
+        });
+    }
+
+    /** Likes accepted but not yet visible in the database. */
+    public long pendingDelta(Long postId) {
+        LongAdder counter = pending.get(postId);
+        long delta = counter != null ? counter.sum() : 0;
+        return delta + inFlight.getOrDefault(postId, 0L);
+    }
+
+    public void discard(Long postId) {
+        pending.remove(postId);
+    }
+
+    @Scheduled(fixedDelayString = "${likes.flush-interval-ms:1000}")
+    public synchronized void flush() {
+        Map<Long, Long> batch = new HashMap<>();
+        Map<LongAdder, Long> drained = new HashMap<>();
+        for (Map.Entry<Long, LongAdder> entry : pending.entrySet()) {
+            LongAdder counter = entry.getValue();
+            long delta = counter.sum();
+            if (delta != 0) {
+                drained.put(counter, delta);
+                batch.put(entry.getKey(), delta);
+            } else {
+                // Idle: unlinked under the same lock add takes, so no like is left behind on it
+                pending.computeIfPresent(entry.getKey(), (id, current) -> current.sum() == 0 ? null : current);
+            }
+        }
+
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        // In flight before it leaves the counters, so pendingDelta never misses it in between
+        batch.forEach((postId, delta) -> inFlight.merge(postId, delta, Long::sum));
+        drained.forEach((counter, delta) -> counter.add(-delta));
+        List<Object[]> args = new ArrayList<>(batch.size());
+        batch.forEach((postId, delta) -> args.add(new Object[] { delta, postId }));
+        long mark = feedCache.beginLikeFlush();
+        try {
+            // All rows or none, so a failed batch can be re-queued whole without counting any row twice
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(
+                    "UPDATE posts SET like_count = COALESCE(like_count, 0) + ? WHERE id = ?", args));
+            feedCache.applyLikeDeltas(batch, mark);
+        } catch (RuntimeException e) {
+            log.error("Failed to flush {} like counters, will retry: {}", batch.size(), e.getMessage());
+            batch.forEach(this::add);
+        } finally {
+            batch.forEach((postId, delta) -> inFlight.computeIfPresent(postId,
+                    (id, current) -> current - delta == 0 ? null : current - delta));
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+}
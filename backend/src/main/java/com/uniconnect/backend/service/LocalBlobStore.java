@@ -0,0 +1,73 @@
+package com.uniconnect.backend.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+/**
+ * Keeps files on this node's disk under {@code storage.local.dir} and serves them from
+ * {@code /api/files}. Keys are random and never reused, so a stored file never changes.
+ */
+@Service
+@ConditionalOnProperty(name = "storage.backend", havingValue = "local")
+public class LocalBlobStore implements BlobStore {
+
+    private static final Pattern SEGMENT = Pattern.compile("[A-Za-z0-9_-]+");
+
+    private final Path root;
+    private final String publicUrl;
+
+    public LocalBlobStore(@Value("${storage.local.dir:data/blobs}") String root,
+            @Value("${storage.local.public-url:http://localhost:8080/api/files}") String publicUrl) throws IOException {
+        this.root = Files.createDirectories(Paths.get(root)).toAbsolutePath().normalize();
+        this.publicUrl = publicUrl.endsWith("/") ? publicUrl.substring(0, publicUrl.length() - 1) : publicUrl;
+    }
+
+    @Override
+    public StoredBlob put(Path file, String folder) throws IOException {
+        if (!SEGMENT.matcher(folder).matches()) {
+            throw new IllegalArgumentException("Invalid folder: " + folder);
+        }
+        String key = folder + "/" + UUID.randomUUID();
+        Path target = root.resolve(key);
+        Files.createDirectories(target.getParent());
+
+        // Copy under a temporary name, so a file is only ever visible complete
+        Path temp = Files.createTempFile(target.getParent(), "put-", ".part");
+        try {
+            Files.copy(file, temp, StandardCopyOption.REPLACE_EXISTING);
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        return new StoredBlob(publicUrl + "/" + key, key);
+    }
+
+    @Override
+    public void delete(String key) throws IOException {
+        Optional<Path> file = resolve(key);
+        if (file.isPresent()) {
+            Files.deleteIfExists(file.get());
+        }
+    }
+
+    /** The file stored under {@code key}, if any; keys that are not ours resolve to nothing. */
+    public Optional<Path> resolve(String key) {
+        String[] segments = key.split("/", -1);
+        if (segments.length != 2 || !SEGMENT.matcher(segments[0]).matches()
+                || !SEGMENT.matcher(segments[1]).matches()) {
+            return Optional.empty();
+        }
+        Path file = root.resolve(key);
+        return Files.isRegularFile(file) ? Optional.of(file) : Optional.empty();
+    }
+}
@@ -0,0 +1,295 @@
+package com.uniconnect.backend.service;
+
+import com.uniconnect.backend.repository.MarketplaceItemRepository;
+import com.uniconnect.backend.search.Tokenizer;
+import org.roaringbitmap.IntIterator;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Bitmap indexes over the available marketplace items of each university: one
+ * bitmap of item ids per word, per category and per price bucket. A search is a
+ * handful of bitmap intersections, and facet counts are intersection cardinalities,
+ * so neither touches the database. Loaded per university on first search and
+ * maintained from item create/delete events. The bitmaps hold 32-bit ids; an item id
+ * beyond that range is kept aside and checked one by one on every search.
+ */
+@Component
+public class MarketplaceSearchIndex {
+
+    public record Result(List<Long> ids, int total, Map<String, Integer> categories,
+            List<Map<String, Object>> priceRanges) {
+    }
+
+    private record Item(String category, double price, Set<String> terms) {
+    }
+
+    private static final class Shard {
+        final Map<Integer, Item> items = new HashMap<>();
+        final RoaringBitmap all = new RoaringBitmap();
+        final TreeMap<String, RoaringBitmap> terms = new TreeMap<>();
+        final Map<String, RoaringBitmap> categories = new TreeMap<>();
+        final RoaringBitmap[] buckets;
+        // Items whose ids do not fit the bitmaps, newest last
+        final TreeMap<Long, Item> wide = new TreeMap<>();
+        volatile boolean loaded;
+
+        Shard(int bucketCount) {
+            buckets = new RoaringBitmap[bucketCount];
+            Arrays.setAll(buckets, i -> new RoaringBitmap());
+        }
+    }
+
+    private final MarketplaceItemRepository marketplaceItemRepository;
+    // Lower bounds of the price buckets after the first, which starts at 0
+    private final double[] bucketBounds;
+    private final Map<Long, Shard> shards = new ConcurrentHashMap<>();
+
+    public MarketplaceSearchIndex(MarketplaceItemRepository marketplaceItemRepository,
+            @Value("${marketplace.search.price-buckets:500,1000,5000,10000}") double[] bucketBounds) {
+        this.marketplaceItemRepository = marketplaceItemRepository;
+        this.bucketBounds = bucketBounds.clone();
+        Arrays.sort(this.bucketBounds);
+    }
+
+    public void added(Long universityId, Long itemId, String title, String description, String category,
+            double price) {
+        TransactionCallbacks.afterCommit(() -> {
+            Shard shard = shards.get(universityId);
+            if (shard != null) {
+                synchronized (shard) {
+                    // An unloaded shard reads this item from the database when it loads
+                    if (shard.loaded) {
+                        put(shard, itemId, title, description, category, price);
+                    }
+                }
+            }
+        });
+    }
+
+    public void removed(Long universityId, Long itemId) {
+        TransactionCallbacks.afterCommit(() -> {
+            Shard shard = shards.get(universityId);
+            if (shard != null) {
+                synchronized (shard) {
+                    if (shard.loaded) {
+                        if (fits(itemId)) {
+                            remove(shard, itemId.intValue());
+                        } else {
+                            shard.wide.remove(itemId);
+                        }
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Matching item ids for one page, newest first. Every query word must prefix a word of the
+     * title or description. Category counts ignore the category filter and price range counts
+     * ignore the price filter, so each facet shows what choosing another value would return.
+     */
+    public Result search(Long universityId, String query, String category, Double minPrice, Double maxPrice,
+            int page, int size) {
+        Shard shard = load(universityId);
+        synchronized (shard) {
+            RoaringBitmap text = matchText(shard, query);
+            RoaringBitmap inCategory = category != null && !category.isEmpty()
+                    ? shard.categories.getOrDefault(category.toUpperCase(Locale.ROOT), new RoaringBitmap())
+                    : shard.all;
+            RoaringBitmap inPrice = matchPrice(shard, minPrice, maxPrice);
+            String wantedCategory = category != null && !category.isEmpty() ? category.toUpperCase(Locale.ROOT) : null;
+            double min = minPrice != null ? minPrice : Double.NEGATIVE_INFINITY;
+            double max = maxPrice != null ? maxPrice : Double.POSITIVE_INFINITY;
+            List<String> tokens = new ArrayList<>(new LinkedHashSet<>(Tokenizer.tokenize(query)));
+
+            RoaringBitmap matches = RoaringBitmap.and(RoaringBitmap.and(text, inCategory), inPrice);
+            RoaringBitmap withoutCategory = RoaringBitmap.and(text, inPrice);
+            RoaringBitmap withoutPrice = RoaringBitmap.and(text, inCategory);
+
+            Map<String, Integer> categoryCounts = new TreeMap<>();
+            shard.categories.forEach((name, ids) -> {
+                int count = RoaringBitmap.andCardinality(withoutCategory, ids);
+                if (count > 0) {
+                    categoryCounts.put(name, count);
+                }
+            });
+            int[] bucketCounts = new int[shard.buckets.length];
+            for (int i = 0; i < shard.buckets.length; i++) {
+                bucketCounts[i] = RoaringBitmap.andCardinality(withoutPrice, shard.buckets[i]);
+            }
+
+            // Ids past the bitmaps are the newest, so their matches lead the results
+            List<Long> wideMatches = new ArrayList<>();
+            shard.wide.descendingMap().forEach((itemId, item) -> {
+                if (!matchesText(item, tokens)) {
+                    return;
+                }
+                boolean categoryMatch = wantedCategory == null || wantedCategory.equals(item.category());
+                boolean priceMatch = item.price() >= min && item.price() <= max;
+                if (priceMatch) {
+                    categoryCounts.merge(item.category(), 1, Integer::sum);
+                }
+                if (categoryMatch) {
+                    bucketCounts[bucket(item.price())]++;
+                }
+                if (categoryMatch && priceMatch) {
+                    wideMatches.add(itemId);
+                }
+            });
+
+            List<Map<String, Object>> priceRanges = new ArrayList<>();
+            for (int i = 0; i < shard.buckets.length; i++) {
+                Map<String, Object> range = new LinkedHashMap<>();
+                range.put("min", i == 0 ? 0.0 : bucketBounds[i - 1]);
+                range.put("max", i < bucketBounds.length ? bucketBounds[i] : null);
+                range.put("count", bucketCounts[i]);
+                priceRanges.add(range);
+            }
+
+            long offset = (long) page * size;
+            List<Long> ids = new ArrayList<>(size);
+            for (long i = offset; ids.size() < size && i < wideMatches.size(); i++) {
+                ids.add(wideMatches.get((int) i));
+            }
+            IntIterator it = matches.getReverseIntIterator();
+            for (long skip = Math.max(0, offset - wideMatches.size()); skip > 0 && it.hasNext(); skip--) {
+                it.next();
+            }
+            while (ids.size() < size && it.hasNext()) {
+                ids.add((long) it.next());
+            }
+            return new Result(ids, matches.getCardinality() + wideMatches.size(), new LinkedHashMap<>(categoryCounts),
+                    priceRanges);
+        }
+    }
+
+    private RoaringBitmap matchText(Shard shard, String query) {
+        RoaringBitmap result = shard.all;
+        for (String token : new LinkedHashSet<>(Tokenizer.tokenize(query))) {
+            // Prefix match on words keeps "cyc" finding "cycle", like the LIKE search did
+            RoaringBitmap matching = RoaringBitmap.or(
+                    shard.terms.subMap(token, token + Character.MAX_VALUE).values().iterator());
+            result = RoaringBitmap.and(result, matching);
+        }
+        return result;
+    }
+
+    private static boolean matchesText(Item item, List<String> tokens) {
+        for (String token : tokens) {
+            if (item.terms().stream().noneMatch(term -> term.startsWith(token))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private RoaringBitmap matchPrice(Shard shard, Double minPrice, Double maxPrice) {
+        if (minPrice == null && maxPrice == null) {
+            return shard.all;
+        }
+        double min = minPrice != null ? minPrice : Double.NEGATIVE_INFINITY;
+        double max = maxPrice != null ? maxPrice : Double.POSITIVE_INFINITY;
+        RoaringBitmap result = new RoaringBitmap();
+        for (int i = 0; i < shard.buckets.length; i++) {
+            double low = i == 0 ? Double.NEGATIVE_INFINITY : bucketBounds[i - 1];
+            double high = i < bucketBounds.length ? bucketBounds[i] : Double.POSITIVE_INFINITY;
+            if (high <= min || low > max) {
+                continue;
+            }
+            if (low >= min && high <= max) {
+                result.or(shard.buckets[i]);
+            } else {
+                // Only the buckets straddling a bound need their items' prices checked
+                shard.buckets[i].forEach((int id) -> {
+                    double price = shard.items.get(id).price();
+                    if (price >= min && price <= max) {
+                        result.add(id);
+                    }
+                });
+            }
+        }
+        return result;
+    }
+
+    private int bucket(double price) {
+        int i = 0;
+        while (i < bucketBounds.length && price >= bucketBounds[i]) {
+            i++;
+        }
+        return i;
+    }
+
+    private void put(Shard shard, Long itemId, String title, String description, String category, double price) {
+        Set<String> terms = new LinkedHashSet<>(Tokenizer.tokenize(title));
+        terms.addAll(Tokenizer.tokenize(description));
+        String normalized = category != null ? category.toUpperCase(Locale.ROOT) : "OTHER";
+        Item item = new Item(normalized, price, terms);
+        if (!fits(itemId)) {
+            shard.wide.put(itemId, item);
+            return;
+        }
+        int id = itemId.intValue();
+        remove(shard, id);
+
+        shard.items.put(id, item);
+        shard.all.add(id);
+        terms.forEach(term -> shard.terms.computeIfAbsent(term, t -> new RoaringBitmap()).add(id));
+        shard.categories.computeIfAbsent(normalized, c -> new RoaringBitmap()).add(id);
+        shard.buckets[bucket(price)].add(id);
+    }
+
+    private void remove(Shard shard, int id) {
+        Item item = shard.items.remove(id);
+        if (item == null) {
+            return;
+        }
+        shard.all.remove(id);
+        for (String term : item.terms()) {
+            RoaringBitmap ids = shard.terms.get(term);
+            ids.remove(id);
+            if (ids.isEmpty()) {
+                shard.terms.remove(term);
+            }
+        }
+        RoaringBitmap ids = shard.categories.get(item.category());
+        ids.remove(id);
+        if (ids.isEmpty()) {
+            shard.categories.remove(item.category());
+        }
+        shard.buckets[bucket(item.price())].remove(id);
+    }
+
+    private static boolean fits(Long itemId) {
+        return itemId >= 0 && itemId <= Integer.MAX_VALUE;
+    }
+
+    private Shard load(Long universityId) {
+        Shard shard = shards.computeIfAbsent(universityId, id -> new Shard(bucketBounds.length + 1));
+        if (shard.loaded) {
+            return shard;
+        }
+        synchronized (shard) {
+            if (!shard.loaded) {
+                for (Object[] row : marketplaceItemRepository.findIndexRows(universityId, "AVAILABLE")) {
+                    put(shard, (Long) row[0], (String) row[1], (String) row[2], (String) row[3], (Double) row[4]);
+                }
+                shard.loaded = true;
+            }
+        }
+        return shard;
+    }
+}
@@ -1,24 +1,53 @@
 package com.uniconnect.backend.service;
 
+import com.uniconnect.backend.dto.CursorPage;
+import com.uniconnect.backend.dto.KeysetCursor;
+import com.uniconnect.backend.dto.MarketplaceItemView;
+import com.uniconnect.backend.dto.PriceCursor;
 import com.uniconnect.backend.entity.MarketplaceItem;
-import com.uniconnect.backend.entity.University;
 import com.uniconnect.backend.entity.User;
 import com.uniconnect.backend.exception.ResourceNotFoundException;
 import com.uniconnect.backend.repository.MarketplaceItemRepository;
 import com.uniconnect.backend.repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 public class MarketplaceService {
 
+    public enum ListingSort {
+        NEWEST, PRICE_ASC, PRICE_DESC
+    }
+
+    private static final int GLOBAL_SEARCH_SIZE = 20;
+
     private final MarketplaceItemRepository marketplaceItemRepository;
     private final UserRepository userRepository;
+    private final SuggestIndex suggestIndex;
+    private final MarketplaceSearchIndex marketplaceSearchIndex;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // MySQL Connector/J only streams rows when the fetch size is Integer.MIN_VALUE
+    @Value("${marketplace.stream.fetch-size:-2147483648}")
+    private int streamFetchSize;
 
     @Transactional
     public MarketplaceItem createItem(MarketplaceItem item, Authentication auth) {
@@ -27,17 +56,78 @@ public class MarketplaceService {
 
         item.setSeller(user);
         item.setUniversity(user.getUniversity());
-        return marketplaceItemRepository.save(item);
+        MarketplaceItem saved = marketplaceItemRepository.save(item);
+        if ("AVAILABLE".equals(saved.getStatus())) {
+            suggestIndex.added(saved.getUniversity().getId(), SuggestIndex.Kind.MARKETPLACE, saved.getId(),
+                    saved.getTitle());
+            marketplaceSearchIndex.added(saved.getUniversity().getId(), saved.getId(), saved.getTitle(),
+                    saved.getDescription(), saved.getCategory(), saved.getPrice());
+        }
+        return saved;
     }
 
-    public List<MarketplaceItem> getItems(Long universityId, String category) {
-        University university = new University();
-        university.setId(universityId);
+    @Transactional(readOnly = true)
+    public CursorPage<MarketplaceItemView> getItemsByCursor(Long universityId, String category, ListingSort sort,
+            String cursor, int size) {
+        String filter = emptyToNull(category);
+        boolean firstPage = cursor == null || cursor.isEmpty();
+        Pageable pageable = PageRequest.of(0, size);
+
+        Slice<MarketplaceItemView> slice;
+        switch (sort) {
+            case PRICE_ASC -> {
+                PriceCursor position = firstPage ? null : PriceCursor.decode(cursor);
+                slice = firstPage
+                        ? marketplaceItemRepository.findCheapestFirst(universityId, "AVAILABLE", filter, pageable)
+                        : marketplaceItemRepository.findCheapestAfter(universityId, "AVAILABLE", filter,
+                                position.getPrice(), position.getId(), pageable);
+            }
+            case PRICE_DESC -> {
+                PriceCursor position = firstPage ? null : PriceCursor.decode(cursor);
+                slice = firstPage
+                        ? marketplaceItemRepository.findPriciestFirst(universityId, "AVAILABLE", filter, pageable)
+                        : marketplaceItemRepository.findPriciestAfter(universityId, "AVAILABLE", filter,
+                                position.getPrice(), position.getId(), pageable);
+            }
+            default -> {
+                KeysetCursor position = firstPage ? null : KeysetCursor.decode(cursor);
+                slice = firstPage
+                        ? marketplaceItemRepository.findNewestFirst(universityId, "AVAILABLE", filter, pageable)
+                        : marketplaceItemRepository.findNewestBefore(universityId, "AVAILABLE", filter,
+                                position.getCreatedAt(), position.getId(), pageable);
+            }
+        }
+
+        String nextCursor = null;
+        if (slice.hasNext() && slice.hasContent()) {
+            MarketplaceItemView last = slice.getContent().get(slice.getNumberOfElements() - 1);
+            nextCursor = sort == ListingSort.NEWEST
+                    ? new KeysetCursor(last.getCreatedAt(), last.getId()).encode()
+                    : new PriceCursor(last.getPrice(), last.getId()).encode();
+        }
+        return new CursorPage<>(slice.getContent(), nextCursor, slice.hasNext());
+    }
 
-        if (category != null && !category.isEmpty()) {
-            return marketplaceItemRepository.findByUniversityAndCategoryAndStatus(university, category, "AVAILABLE");
+    /**
+     * Hands every available listing to {@code sink} as rows arrive from the database, newest first,
+     * without building the full list. Runs in one read-only transaction for the whole scroll.
+     */
+    @Transactional(readOnly = true)
+    public void streamItems(Long universityId, String category, Consumer<MarketplaceItemView> sink) {
+        try (Stream<MarketplaceItemView> rows = entityManager
+                .createQuery(MarketplaceItemRepository.LISTING + "ORDER BY i.createdAt DESC, i.id DESC",
+                        MarketplaceItemView.class)
+                .setParameter("universityId", universityId)
+                .setParameter("status", "AVAILABLE")
+                .setParameter("category", emptyToNull(category))
+                .setHint(AvailableHints.HINT_FETCH_SIZE, streamFetchSize)
+                .getResultStream()) {
+            rows.forEach(sink);
         }
-        return marketplaceItemRepository.findByUniversityAndStatus(university, "AVAILABLE");
+    }
+
+    private static String emptyToNull(String value) {
+        return value == null || value.isEmpty() ? null : value;
     }
 
     @Transactional
@@ -53,13 +143,39 @@ public class MarketplaceService {
         }
 
         marketplaceItemRepository.delete(item);
+        suggestIndex.removed(item.getUniversity().getId(), SuggestIndex.Kind.MARKETPLACE, id);
+        marketplaceSearchIndex.removed(item.getUniversity().getId(), id);
+    }
+
+    public List<MarketplaceItemView> searchItems(Long universityId, String query) {
+        MarketplaceSearchIndex.Result result = marketplaceSearchIndex.search(universityId, query, null, null, null, 0,
+                GLOBAL_SEARCH_SIZE);
+        return loadViews(result.ids());
     }
 
-    public List<MarketplaceItem> searchItems(Long universityId, String query) {
-        University university = new University();
-        university.setId(universityId);
-        return marketplaceItemRepository
-                .findByUniversityAndStatusAndTitleContainingIgnoreCaseOrDescriptionContainingIgnoreCase(university,
-                        "AVAILABLE", query, query);
+    public Map<String, Object> searchItems(Long universityId, String query, String category, Double minPrice,
+            Double maxPrice, int page, int size) {
+        MarketplaceSearchIndex.Result result = marketplaceSearchIndex.search(universityId, query, category, minPrice,
+                maxPrice, page, size);
+
+        Map<String, Object> facets = new HashMap<>();
+        facets.put("categories", result.categories());
+        facets.put("priceRanges", result.priceRanges());
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("items", loadViews(result.ids()));
+        response.put("total", result.total());
+        response.put("facets", facets);
+        return response;
+    }
+
+    // Rows by primary key, kept in the index's order
+    private List<MarketplaceItemView> loadViews(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, MarketplaceItemView> byId = new HashMap<>();
+        marketplaceItemRepository.findViewsByIds(ids).forEach(view -> byId.put(view.getId(), view));
+        return ids.stream().map(byId::get).filter(java.util.Objects::nonNull).toList();
     }
 }
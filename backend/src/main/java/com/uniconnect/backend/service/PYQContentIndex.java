@@ -0,0 +1,162 @@
+package com.uniconnect.backend.service;
+
+import com.uniconnect.backend.entity.enums.PreviewStatus;
+import com.uniconnect.backend.repository.PYQRepository;
+import com.uniconnect.backend.search.InvertedIndex;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.roaringbitmap.longlong.Roaring64NavigableMap;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Full-text index over the extracted text of each university's PYQs, so papers can be
+ * found by what they ask rather than only by subject. A university's index is built in
+ * the background on its first search and then maintained as previews are extracted and
+ * PYQs come and go. Until it is ready, {@link #matches} returns empty and callers fall
+ * back to SQL.
+ */
+@Slf4j
+@Component
+public class PYQContentIndex {
+
+    private static final int LOAD_BATCH = 200;
+
+    private record Change(Long pyqId, String text) {
+    }
+
+    private static final class Shard {
+        final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        InvertedIndex index;
+        boolean building;
+        // Changes seen while the index is being built, replayed once it is in place
+        final List<Change> pending = new ArrayList<>();
+    }
+
+    private final PYQRepository pyqRepository;
+    private final Map<Long, Shard> shards = new ConcurrentHashMap<>();
+    private final ExecutorService builder = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "pyq-content-builder");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public PYQContentIndex(PYQRepository pyqRepository) {
+        this.pyqRepository = pyqRepository;
+    }
+
+    public void indexed(Long universityId, Long pyqId, String text) {
+        TransactionCallbacks.afterCommit(() -> apply(universityId, new Change(pyqId, text)));
+    }
+
+    public void removed(Long universityId, Long pyqId) {
+        TransactionCallbacks.afterCommit(() -> apply(universityId, new Change(pyqId, null)));
+    }
+
+    /** Ids of every matching PYQ, unranked; empty while the university's index is still building. */
+    public Optional<Roaring64NavigableMap> matches(Long universityId, String query) {
+        Shard shard = shard(universityId);
+        shard.lock.readLock().lock();
+        try {
+            if (shard.index != null) {
+                Roaring64NavigableMap ids = new Roaring64NavigableMap();
+                shard.index.matching(query).forEach(ids::addLong);
+                return Optional.of(ids);
+            }
+        } finally {
+            shard.lock.readLock().unlock();
+        }
+        scheduleBuild(universityId, shard);
+        return Optional.empty();
+    }
+
+    private Shard shard(Long universityId) {
+        return shards.computeIfAbsent(universityId, id -> new Shard());
+    }
+
+    private void apply(Long universityId, Change change) {
+        Shard shard = shard(universityId);
+        shard.lock.writeLock().lock();
+        try {
+            if (shard.index == null) {
+                // Nothing to keep current until someone searches this university
+                if (shard.building) {
+                    shard.pending.add(change);
+                }
+                return;
+            }
+            applyTo(shard.index, change);
+        } finally {
+            shard.lock.writeLock().unlock();
+        }
+    }
+
+    private static void applyTo(InvertedIndex index, Change change) {
+        if (change.text() != null) {
+            index.add(change.pyqId(), change.text());
+        } else {
+            index.remove(change.pyqId());
+        }
+    }
+
+    private void scheduleBuild(Long universityId, Shard shard) {
+        shard.lock.writeLock().lock();
+        try {
+            if (shard.building || shard.index != null) {
+                return;
+            }
+            shard.building = true;
+        } finally {
+            shard.lock.writeLock().unlock();
+        }
+        builder.execute(() -> build(universityId, shard));
+    }
+
+    private void build(Long universityId, Shard shard) {
+        InvertedIndex index = new InvertedIndex();
+        try {
+            Slice<Object[]> batch;
+            long afterId = 0;
+            do {
+                batch = pyqRepository.findContentAfter(universityId, PreviewStatus.READY, afterId,
+                        PageRequest.of(0, LOAD_BATCH));
+                for (Object[] row : batch) {
+                    index.add((Long) row[0], (String) row[1]);
+                    afterId = (Long) row[0];
+                }
+            } while (batch.hasNext());
+        } catch (RuntimeException e) {
+            log.warn("Building PYQ content index for university {} failed", universityId, e);
+            index = null;
+        }
+
+        shard.lock.writeLock().lock();
+        try {
+            shard.building = false;
+            if (index != null) {
+                for (Change change : shard.pending) {
+                    applyTo(index, change);
+                }
+                shard.index = index;
+            }
+            shard.pending.clear();
+        } finally {
+            shard.lock.writeLock().unlock();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        builder.shutdownNow();
+    }
+}
@@ -0,0 +1,360 @@
+package com.uniconnect.backend.service;
+
+import com.uniconnect.backend.dto.PYQUploadJobView;
+import com.uniconnect.backend.entity.FileBlob;
+import com.uniconnect.backend.entity.FilePreview;
+import com.uniconnect.backend.entity.PYQ;
+import com.uniconnect.backend.entity.PYQUploadJob;
+import com.uniconnect.backend.entity.User;
+import com.uniconnect.backend.entity.enums.PreviewStatus;
+import com.uniconnect.backend.entity.enums.UploadJobStatus;
+import com.uniconnect.backend.exception.ResourceNotFoundException;
+import com.uniconnect.backend.repository.PYQRepository;
+import com.uniconnect.backend.repository.PYQUploadJobRepository;
+import com.uniconnect.backend.repository.UniversityRepository;
+import com.uniconnect.backend.repository.UserRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Accepts PYQ uploads into a job queue and pushes them to storage in the background.
+ * The request only spools the file to local disk and inserts a {@code pyq_upload_jobs}
+ * row; a small worker pool uploads with exponential backoff, creates the PYQ when
+ * storage succeeds and hands the file on to {@link PYQPreviewService}. The table is
+ * the durable queue: a periodic sweep re-dispatches jobs that are due, left over from
+ * a restart, or did not fit the in-memory queue. The spooled file lives on one node's
+ * disk, so each job records that node and only its sweep picks the job up; every
+ * attempt also claims the job with a conditional update, so it never runs twice at once.
+ */
+@Slf4j
+@Service
+public class PYQIngestionService {
+
+    private static final List<UploadJobStatus> PENDING = List.of(UploadJobStatus.QUEUED, UploadJobStatus.RETRYING,
+            UploadJobStatus.UPLOADING);
+
+    private final PYQUploadJobRepository jobRepository;
+    private final PYQRepository pyqRepository;
+    private final UserRepository userRepository;
+    private final UniversityRepository universityRepository;
+    private final BlobStore blobStore;
+    private final FileBlobService fileBlobService;
+    private final UploadSpooler uploadSpooler;
+    private final PYQPreviewService pyqPreviewService;
+    private final PYQContentIndex pyqContentIndex;
+    private final SuggestIndex suggestIndex;
+    private final SubjectDictionary subjectDictionary;
+    private final TransactionTemplate transactionTemplate;
+    private final Path directory;
+    private final String nodeId;
+    private final int queueCapacity;
+    private final int maxAttempts;
+    private final long backoffMs;
+    private final long maxBackoffMs;
+    private final ScheduledThreadPoolExecutor workers;
+    // Jobs queued or running on this node, so the sweep does not dispatch them twice
+    private final Set<Long> inFlight = ConcurrentHashMap.newKeySet();
+
+    public PYQIngestionService(PYQUploadJobRepository jobRepository, PYQRepository pyqRepository,
+            UserRepository userRepository, UniversityRepository universityRepository,
+            BlobStore blobStore, FileBlobService fileBlobService, UploadSpooler uploadSpooler, PYQPreviewService pyqPreviewService,
+            PYQContentIndex pyqContentIndex, SuggestIndex suggestIndex,
+            SubjectDictionary subjectDictionary, TransactionTemplate transactionTemplate,
+            @Value("${pyq.ingest.dir:data/pyq-jobs}") String directory,
+            @Value("${pyq.ingest.node-id:}") String nodeId,
+            @Value("${pyq.ingest.workers:2}") int workers,
+            @Value("${pyq.ingest.queue-capacity:100}") int queueCapacity,
+            @Value("${pyq.ingest.max-attempts:5}") int maxAttempts,
+            @Value("${pyq.ingest.backoff-ms:2000}") long backoffMs,
+            @Value("${pyq.ingest.max-backoff-ms:300000}") long maxBackoffMs) {
+        this.jobRepository = jobRepository;
+        this.pyqRepository = pyqRepository;
+        this.userRepository = userRepository;
+        this.universityRepository = universityRepository;
+        this.blobStore = blobStore;
+        this.fileBlobService = fileBlobService;
+        this.uploadSpooler = uploadSpooler;
+        this.pyqPreviewService = pyqPreviewService;
+        this.pyqContentIndex = pyqContentIndex;
+        this.suggestIndex = suggestIndex;
+        this.subjectDictionary = subjectDictionary;
+        this.transactionTemplate = transactionTemplate;
+        this.directory = Paths.get(directory);
+        // Stable across restarts, so a restarted node resumes the jobs spooled to its disk
+        this.nodeId = nodeId.isEmpty() ? hostName() : nodeId;
+        this.queueCapacity = queueCapacity;
+        this.maxAttempts = maxAttempts;
+        this.backoffMs = backoffMs;
+        this.maxBackoffMs = maxBackoffMs;
+
+        AtomicInteger count = new AtomicInteger();
+        this.workers = new ScheduledThreadPoolExecutor(workers, r -> {
+            Thread thread = new Thread(r, "pyq-ingest-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public PYQUploadJobView submit(String subject, Integer year, String examType, MultipartFile file,
+            Authentication auth) throws IOException {
+        User user = userRepository.findByEmail(auth.getName())
+                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+
+        if (user.getUniversity() == null) {
+            throw new IllegalStateException("User must be associated with a university");
+        }
+
+        UploadSpooler.SpooledFile spooled = uploadSpooler.spool(file, directory);
+        PYQUploadJob job = new PYQUploadJob();
+        job.setSubject(subject);
+        job.setYear(year);
+        job.setExamType(examType);
+        job.setFilePath(spooled.getPath().toAbsolutePath().toString());
+        job.setNodeId(nodeId);
+        job.setFileSize(spooled.getSize());
+        job.setFileSha256(spooled.getSha256());
+        job.setUploadedBy(user);
+        job.setUniversity(user.getUniversity());
+
+        PYQUploadJob saved;
+        try {
+            saved = jobRepository.save(job);
+        } catch (RuntimeException e) {
+            spooled.close();
+            throw e;
+        }
+        dispatch(saved.getId(), 0);
+        return PYQUploadJobView.from(saved);
+    }
+
+    public PYQUploadJobView getJob(Long id, Authentication auth) {
+        PYQUploadJob job = jobRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Upload job not found"));
+
+        User user = userRepository.findByEmail(auth.getName())
+                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+
+        if (!job.getUploadedBy().getId().equals(user.getId())) {
+            throw new ResourceNotFoundException("Upload job not found");
+        }
+        return PYQUploadJobView.from(job);
+    }
+
+    @Scheduled(fixedDelayString = "${pyq.ingest.sweep-interval-ms:10000}")
+    public void sweep() {
+        int room = queueCapacity - workers.getQueue().size();
+        if (room <= 0) {
+            return;
+        }
+        jobRepository.findDueIds(nodeId, PENDING, LocalDateTime.now(), PageRequest.of(0, room))
+                .forEach(id -> dispatch(id, 0));
+    }
+
+    private void dispatch(Long jobId, long delayMs) {
+        // Past capacity the job simply waits in the table for a later sweep
+        if (workers.getQueue().size() >= queueCapacity || !inFlight.add(jobId)) {
+            return;
+        }
+        workers.schedule(() -> run(jobId), delayMs, TimeUnit.MILLISECONDS);
+    }
+
+    private void run(Long jobId) {
+        long retryIn = -1;
+        try {
+            retryIn = process(jobId);
+        } catch (RuntimeException e) {
+            // Typically the database; the job stays pending and the sweep picks it up again
+            log.error("PYQ upload job {} could not be processed: {}", jobId, e.getMessage());
+        } finally {
+            inFlight.remove(jobId);
+        }
+        if (retryIn >= 0) {
+            dispatch(jobId, retryIn);
+        }
+    }
+
+    // Returns the delay before the next attempt, or -1 when the job is finished either way
+    private long process(Long jobId) {
+        PYQUploadJob job = jobRepository.findById(jobId).orElse(null);
+        if (job == null || !PENDING.contains(job.getStatus())) {
+            return -1;
+        }
+        Path file = Paths.get(job.getFilePath());
+        if (!Files.exists(file)) {
+            fail(job, "Uploaded file is no longer available");
+            return -1;
+        }
+
+        if (jobRepository.claim(jobId, job.getAttempts(), nodeId, PENDING, LocalDateTime.now()) == 0) {
+            return -1;
+        }
+        job.setStatus(UploadJobStatus.UPLOADING);
+        job.setAttempts(job.getAttempts() + 1);
+        job.setNodeId(nodeId);
+
+        // Content that is already stored only needs another reference, not another upload
+        BlobStore.StoredBlob upload = null;
+        if (!fileBlobService.isStored(job.getFileSha256())) {
+            try {
+                upload = blobStore.put(file, "pyqs");
+            } catch (IOException | RuntimeException e) {
+                return retry(job, e.getMessage());
+            }
+        }
+
+        boolean completed;
+        try {
+            try {
+                completed = complete(job, upload);
+            } catch (DataIntegrityViolationException e) {
+                // The same content was stored concurrently; reference that copy instead
+                completed = complete(job, upload);
+            }
+        } catch (RuntimeException e) {
+            // Rolled back, so nothing references the fresh upload; the next attempt uploads again
+            discard(upload);
+            // The rolled-back transaction had already marked the job done in memory
+            job.setPyqId(null);
+            return retry(job, e.getMessage());
+        }
+        if (!completed) {
+            // The stored copy was released after the check above, so upload after all
+            return 0;
+        }
+        pyqPreviewService.submit(job.getFileSha256(), file);
+        return -1;
+    }
+
+    // False when there is neither a stored blob for the content nor a fresh upload of it
+    private boolean complete(PYQUploadJob job, BlobStore.StoredBlob upload) {
+        return Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+            FileBlob blob = fileBlobService.acquire(job.getFileSha256(), job.getFileSize(), upload)
+                    .orElse(null);
+            if (blob == null) {
+                return false;
+            }
+
+            PYQ pyq = new PYQ();
+            pyq.setSubject(job.getSubject());
+            pyq.setYear(job.getYear());
+            pyq.setExamType(job.getExamType());
+            pyq.setFileUrl(blob.getFileUrl());
+            pyq.setFilePublicId(blob.getPublicId());
+            pyq.setFileSize(job.getFileSize());
+            pyq.setFileSha256(job.getFileSha256());
+            FilePreview preview = pyqPreviewService.register(job.getFileSha256());
+            pyq.setPreviewUrl(preview.getThumbnailUrl());
+            pyq.setUploadedBy(userRepository.getReferenceById(job.getUploadedBy().getId()));
+            pyq.setUniversity(universityRepository.getReferenceById(job.getUniversity().getId()));
+            PYQ saved = pyqRepository.save(pyq);
+
+            job.setStatus(UploadJobStatus.DONE);
+            job.setPyqId(saved.getId());
+            job.setLastError(null);
+            job.setNextAttemptAt(null);
+            jobRepository.save(job);
+
+            Long universityId = job.getUniversity().getId();
+            suggestIndex.added(universityId, SuggestIndex.Kind.PYQ, saved.getId(), saved.getSubject());
+            subjectDictionary.added(universityId, saved.getId(), saved.getSubject(), saved.getCreatedAt());
+            if (preview.getStatus() == PreviewStatus.READY && preview.getText() != null) {
+                pyqContentIndex.indexed(universityId, saved.getId(), preview.getText());
+            }
+            return true;
+        }));
+    }
+
+    private void discard(BlobStore.StoredBlob upload) {
+        if (upload == null) {
+            return;
+        }
+        try {
+            blobStore.delete(upload.key());
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not delete orphaned upload {}: {}", upload.key(), e.getMessage());
+        }
+    }
+
+    // Counts the attempt as failed; returns the delay before the next one, or -1 once out of attempts
+    private long retry(PYQUploadJob job, String error) {
+        if (job.getAttempts() >= maxAttempts) {
+            fail(job, error);
+            return -1;
+        }
+        long delay = backoff(job.getAttempts());
+        job.setStatus(UploadJobStatus.RETRYING);
+        job.setLastError(truncate(error));
+        job.setNextAttemptAt(LocalDateTime.now().plusNanos(delay * 1_000_000));
+        jobRepository.save(job);
+        log.warn("PYQ upload job {} attempt {} failed, retrying in {} ms: {}", job.getId(), job.getAttempts(),
+                delay, error);
+        return delay;
+    }
+
+    private void fail(PYQUploadJob job, String error) {
+        job.setStatus(UploadJobStatus.FAILED);
+        job.setLastError(truncate(error));
+        job.setNextAttemptAt(null);
+        jobRepository.save(job);
+        delete(Paths.get(job.getFilePath()));
+        log.warn("PYQ upload job {} failed after {} attempts: {}", job.getId(), job.getAttempts(), error);
+    }
+
+    // Exponential with jitter, so retries after a storage outage do not arrive together
+    private long backoff(int attempt) {
+        long ceiling = Math.min(maxBackoffMs, backoffMs << Math.min(attempt - 1, 20));
+        return ThreadLocalRandom.current().nextLong(ceiling / 2, ceiling + 1);
+    }
+
+    private static String hostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            throw new IllegalStateException("Set pyq.ingest.node-id, the host name is not available", e);
+        }
+    }
+
+    private static String truncate(String message) {
+        if (message == null) {
+            return null;
+        }
+        return message.length() > 500 ? message.substring(0, 500) : message;
+    }
+
+    private static void delete(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Could not delete spooled upload {}", file, e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // Interrupted uploads stay pending in the table and resume on the next start
+        workers.shutdownNow();
+    }
+}
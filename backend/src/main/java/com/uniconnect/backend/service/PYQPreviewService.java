@@ -0,0 +1,406 @@
+package com.uniconnect.backend.service;
+
+import com.uniconnect.backend.entity.FileBlob;
+import com.uniconnect.backend.entity.FilePreview;
+import com.uniconnect.backend.entity.enums.PreviewStatus;
+import com.uniconnect.backend.repository.FileBlobRepository;
+import com.uniconnect.backend.repository.FilePreviewRepository;
+import com.uniconnect.backend.repository.PYQRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.io.MemoryUsageSetting;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.pdmodel.encryption.InvalidPasswordException;
+import org.apache.pdfbox.rendering.ImageType;
+import org.apache.pdfbox.rendering.PDFRenderer;
+import org.apache.pdfbox.text.PDFTextStripper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.URLConnection;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Background stage after a PYQ is stored: renders a first-page thumbnail and extracts
+ * the text, which feeds {@link PYQContentIndex}. Work is per file content, so a paper
+ * uploaded again reuses the earlier extraction. Ingestion hands over its local copy of
+ * the file; previews still pending later, e.g. after a full queue or a restart, are
+ * picked up by a sweep that downloads the stored file instead.
+ */
+@Slf4j
+@Service
+public class PYQPreviewService {
+
+    private static final String THUMBNAIL_FOLDER = "previews";
+    private static final int CONNECT_TIMEOUT_MS = 10_000;
+    private static final int READ_TIMEOUT_MS = 30_000;
+
+    private final FilePreviewRepository filePreviewRepository;
+    private final FileBlobRepository fileBlobRepository;
+    private final PYQRepository pyqRepository;
+    private final BlobStore blobStore;
+    private final PYQContentIndex pyqContentIndex;
+    private final TransactionTemplate transactionTemplate;
+    private final Path directory;
+    private final int thumbnailWidth;
+    private final int maxThumbnailHeight;
+    private final long maxImagePixels;
+    private final int maxTextChars;
+    private final int maxTextPages;
+    private final int maxPages;
+    // Buffers for the streams of a PDF: a little heap, then temp files in the preview directory, both capped
+    private final MemoryUsageSetting pdfMemory;
+    private final int maxAttempts;
+    private final ThreadPoolExecutor workers;
+    // Contents queued or running on this node, so the sweep does not dispatch them twice
+    private final Set<String> inFlight = ConcurrentHashMap.newKeySet();
+
+    public PYQPreviewService(FilePreviewRepository filePreviewRepository, FileBlobRepository fileBlobRepository,
+            PYQRepository pyqRepository, BlobStore blobStore, PYQContentIndex pyqContentIndex,
+            TransactionTemplate transactionTemplate,
+            @Value("${pyq.preview.dir:data/pyq-previews}") String directory,
+            @Value("${pyq.preview.workers:2}") int workers,
+            @Value("${pyq.preview.queue-capacity:50}") int queueCapacity,
+            @Value("${pyq.preview.thumbnail-width:320}") int thumbnailWidth,
+            @Value("${pyq.preview.max-thumbnail-height:1280}") int maxThumbnailHeight,
+            @Value("${pyq.preview.max-image-pixels:50000000}") long maxImagePixels,
+            @Value("${pyq.preview.max-text-chars:100000}") int maxTextChars,
+            @Value("${pyq.preview.max-text-pages:50}") int maxTextPages,
+            @Value("${pyq.preview.max-pages:1000}") int maxPages,
+            @Value("${pyq.preview.max-pdf-memory-bytes:16777216}") long maxPdfMemoryBytes,
+            @Value("${pyq.preview.max-pdf-storage-bytes:268435456}") long maxPdfStorageBytes,
+            @Value("${pyq.preview.max-attempts:3}") int maxAttempts) {
+        this.filePreviewRepository = filePreviewRepository;
+        this.fileBlobRepository = fileBlobRepository;
+        this.pyqRepository = pyqRepository;
+        this.blobStore = blobStore;
+        this.pyqContentIndex = pyqContentIndex;
+        this.transactionTemplate = transactionTemplate;
+        this.directory = Paths.get(directory);
+        this.thumbnailWidth = thumbnailWidth;
+        this.maxThumbnailHeight = maxThumbnailHeight;
+        this.maxImagePixels = maxImagePixels;
+        this.maxTextChars = maxTextChars;
+        this.maxTextPages = maxTextPages;
+        this.maxPages = maxPages;
+        this.pdfMemory = MemoryUsageSetting.setupMixed(maxPdfMemoryBytes, maxPdfStorageBytes)
+                .setTempDir(this.directory.toFile());
+        this.maxAttempts = maxAttempts;
+
+        AtomicInteger count = new AtomicInteger();
+        this.workers = new ThreadPoolExecutor(workers, workers, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), r -> {
+                    Thread thread = new Thread(r, "pyq-preview-" + count.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * The preview of this content, created pending when there is none yet. Called in the
+     * transaction that stores a PYQ, so a new PYQ can take over an earlier extraction.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public FilePreview register(String sha256) {
+        return filePreviewRepository.findById(sha256).orElseGet(() -> {
+            FilePreview preview = new FilePreview();
+            preview.setSha256(sha256);
+            return filePreviewRepository.save(preview);
+        });
+    }
+
+    /** Queues extraction from a local copy of the content; the file is deleted once done with. */
+    public void submit(String sha256, Path file) {
+        if (!dispatch(sha256, file)) {
+            delete(file);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${pyq.preview.sweep-interval-ms:60000}")
+    public void sweep() {
+        int room = workers.getQueue().remainingCapacity();
+        if (room <= 0) {
+            return;
+        }
+        // Recently touched previews are most likely still on their way through a queue
+        filePreviewRepository.findStale(PreviewStatus.PENDING, LocalDateTime.now().minusMinutes(1),
+                PageRequest.of(0, room)).forEach(sha256 -> dispatch(sha256, null));
+    }
+
+    private boolean dispatch(String sha256, Path file) {
+        if (!inFlight.add(sha256)) {
+            return false;
+        }
+        try {
+            workers.execute(() -> run(sha256, file));
+            return true;
+        } catch (RejectedExecutionException e) {
+            // Stays pending for the sweep
+            inFlight.remove(sha256);
+            return false;
+        }
+    }
+
+    private void run(String sha256, Path file) {
+        Path source = file;
+        Path thumbnail = null;
+        try {
+            FilePreview preview = filePreviewRepository.findById(sha256).orElse(null);
+            if (preview == null || preview.getStatus() != PreviewStatus.PENDING) {
+                return;
+            }
+            if (preview.getAttempts() >= maxAttempts) {
+                // Every attempt ended without an outcome, such as an Error that killed the worker
+                exhausted(sha256);
+                return;
+            }
+            // Counted before extraction, so content that kills its worker still runs out of attempts
+            if (filePreviewRepository.claim(sha256, preview.getAttempts(), LocalDateTime.now()) == 0) {
+                return;
+            }
+            if (source == null) {
+                source = download(sha256);
+                if (source == null) {
+                    finish(sha256, PreviewStatus.SKIPPED, null, null, null, "Stored file not found");
+                    return;
+                }
+            }
+
+            thumbnail = Files.createTempFile(Files.createDirectories(directory), "thumb-", ".png");
+            Extraction extraction = isPdf(source) ? extractPdf(source, thumbnail) : extractImage(source, thumbnail);
+            if (extraction.skipped() != null) {
+                finish(sha256, PreviewStatus.SKIPPED, null, null, null, extraction.skipped());
+                return;
+            }
+            BlobStore.StoredBlob stored = blobStore.put(thumbnail, THUMBNAIL_FOLDER);
+            finish(sha256, PreviewStatus.READY, stored, extraction.text(), extraction.pageCount(), null);
+        } catch (InvalidPasswordException e) {
+            finish(sha256, PreviewStatus.SKIPPED, null, null, null, "Encrypted PDF");
+        } catch (IOException | RuntimeException e) {
+            failed(sha256, e);
+        } finally {
+            inFlight.remove(sha256);
+            delete(source);
+            delete(thumbnail);
+        }
+    }
+
+    // Skipped is set, and nothing else, for content that will never preview and so is not retried
+    private record Extraction(String text, Integer pageCount, String skipped) {
+        static Extraction skip(String reason) {
+            return new Extraction(null, null, reason);
+        }
+    }
+
+    private Extraction extractPdf(Path source, Path thumbnail) throws IOException {
+        try (PDDocument document = Loader.loadPDF(source.toFile(), pdfMemory.streamCache)) {
+            int pages = document.getNumberOfPages();
+            if (pages == 0) {
+                return Extraction.skip("PDF has no pages");
+            }
+            if (pages > maxPages) {
+                return Extraction.skip("PDF has too many pages: " + pages);
+            }
+            PDRectangle page = document.getPage(0).getMediaBox();
+            // A very tall MediaBox would otherwise render to an image of any height
+            float scale = Math.min(thumbnailWidth / Math.max(page.getWidth(), 1f),
+                    maxThumbnailHeight / Math.max(page.getHeight(), 1f));
+            BufferedImage image = new PDFRenderer(document).renderImage(0, scale, ImageType.RGB);
+            ImageIO.write(image, "png", thumbnail.toFile());
+
+            PDFTextStripper stripper = new PDFTextStripper();
+            stripper.setEndPage(maxTextPages);
+            String text = stripper.getText(document).replaceAll("\\s+", " ").trim();
+            if (text.length() > maxTextChars) {
+                text = text.substring(0, maxTextChars);
+            }
+            return new Extraction(text.isEmpty() ? null : text, pages, null);
+        }
+    }
+
+    // Checks the dimensions in the header before decoding anything, and decodes only every n-th pixel
+    private Extraction extractImage(Path source, Path thumbnail) throws IOException {
+        BufferedImage image;
+        try (ImageInputStream in = ImageIO.createImageInputStream(source.toFile())) {
+            Iterator<ImageReader> readers = in == null ? null : ImageIO.getImageReaders(in);
+            if (readers == null || !readers.hasNext()) {
+                return Extraction.skip("Not a PDF or image");
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                if (width <= 0 || height <= 0) {
+                    return Extraction.skip("Not a PDF or image");
+                }
+                if ((long) width * height > maxImagePixels) {
+                    return Extraction.skip("Image too large: " + width + "x" + height);
+                }
+                ImageReadParam param = reader.getDefaultReadParam();
+                int step = Math.max(1, Math.min(width / thumbnailWidth, height / maxThumbnailHeight));
+                param.setSourceSubsampling(step, step, 0, 0);
+                image = reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+        float ratio = Math.min((float) thumbnailWidth / image.getWidth(), (float) maxThumbnailHeight / image.getHeight());
+        int width = Math.max(1, Math.round(image.getWidth() * ratio));
+        int height = Math.max(1, Math.round(image.getHeight() * ratio));
+        BufferedImage scaled = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = scaled.createGraphics();
+        graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        graphics.drawImage(image, 0, 0, width, height, null);
+        graphics.dispose();
+        ImageIO.write(scaled, "png", thumbnail.toFile());
+        return new Extraction(null, 1, null);
+    }
+
+    private void finish(String sha256, PreviewStatus status, BlobStore.StoredBlob thumbnail, String text,
+            Integer pageCount, String note) {
+        boolean kept = Boolean.TRUE.equals(transactionTemplate.execute(tx -> {
+            FilePreview preview = filePreviewRepository.findById(sha256).orElse(null);
+            if (preview == null) {
+                // Every PYQ with this content was deleted meanwhile
+                return false;
+            }
+            preview.setStatus(status);
+            preview.setLastError(note);
+            if (thumbnail != null) {
+                preview.setThumbnailUrl(thumbnail.url());
+                preview.setThumbnailKey(thumbnail.key());
+                preview.setText(text);
+                preview.setPageCount(pageCount);
+                pyqRepository.updatePreviewUrl(sha256, thumbnail.url());
+                if (text != null) {
+                    for (Object[] row : pyqRepository.findIdsBySha256(sha256)) {
+                        pyqContentIndex.indexed((Long) row[1], (Long) row[0], text);
+                    }
+                }
+            }
+            filePreviewRepository.save(preview);
+            return true;
+        }));
+        if (!kept && thumbnail != null) {
+            try {
+                blobStore.delete(thumbnail.key());
+            } catch (IOException e) {
+                log.warn("Could not delete orphaned thumbnail {}: {}", thumbnail.key(), e.getMessage());
+            }
+        }
+    }
+
+    private void failed(String sha256, Exception e) {
+        log.warn("Preview of {} failed: {}", sha256, e.getMessage());
+        try {
+            transactionTemplate.executeWithoutResult(tx -> filePreviewRepository.findById(sha256).ifPresent(preview -> {
+                // The attempt was counted when it was claimed
+                preview.setLastError(truncate(e.getMessage()));
+                // Still pending until out of attempts; updatedAt makes the sweep wait before the next one
+                if (preview.getAttempts() >= maxAttempts) {
+                    preview.setStatus(PreviewStatus.FAILED);
+                }
+                filePreviewRepository.save(preview);
+            }));
+        } catch (RuntimeException ex) {
+            log.error("Could not record preview failure for {}: {}", sha256, ex.getMessage());
+        }
+    }
+
+    private void exhausted(String sha256) {
+        log.warn("Preview of {} gave up after {} attempts", sha256, maxAttempts);
+        transactionTemplate.executeWithoutResult(tx -> filePreviewRepository.findById(sha256).ifPresent(preview -> {
+            if (preview.getStatus() != PreviewStatus.PENDING) {
+                return;
+            }
+            preview.setStatus(PreviewStatus.FAILED);
+            if (preview.getLastError() == null) {
+                preview.setLastError("Gave up after " + preview.getAttempts() + " attempts");
+            }
+            filePreviewRepository.save(preview);
+        }));
+    }
+
+    // Fetches the stored copy when the uploaded one is gone; null when nothing is stored any more
+    private Path download(String sha256) throws IOException {
+        FileBlob blob = fileBlobRepository.findBySha256(sha256).orElse(null);
+        if (blob == null) {
+            return null;
+        }
+        Path target = Files.createTempFile(Files.createDirectories(directory), "source-", ".part");
+        try {
+            URLConnection connection = URI.create(blob.getFileUrl()).toURL().openConnection();
+            connection.setConnectTimeout(CONNECT_TIMEOUT_MS);
+            connection.setReadTimeout(READ_TIMEOUT_MS);
+            try (InputStream in = connection.getInputStream()) {
+                Files.copy(in, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+            return target;
+        } catch (IOException | RuntimeException e) {
+            delete(target);
+            throw e;
+        }
+    }
+
+    private static boolean isPdf(Path file) throws IOException {
+        try (InputStream in = Files.newInputStream(file)) {
+            byte[] head = in.readNBytes(5);
+            return head.length == 5 && new String(head, StandardCharsets.US_ASCII).equals("%PDF-");
+        }
+    }
+
+    private static String truncate(String message) {
+        if (message == null) {
+            return null;
+        }
+        return message.length() > 500 ? message.substring(0, 500) : message;
+    }
+
+    private static void delete(Path file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Could not delete {}", file, e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // Unfinished previews stay pending and the sweep picks them up on the next start
+        workers.shutdownNow();
+    }
+}
@@ -1,67 +1,131 @@
 package com.uniconnect.backend.service;
 
+import com.uniconnect.backend.dto.CursorPage;
+import com.uniconnect.backend.dto.KeysetCursor;
+import com.uniconnect.backend.dto.PYQFilter;
+import com.uniconnect.backend.dto.PYQUploadJobView;
+import com.uniconnect.backend.dto.PYQView;
 import com.uniconnect.backend.entity.PYQ;
-import com.uniconnect.backend.entity.University;
 import com.uniconnect.backend.entity.User;
 import com.uniconnect.backend.exception.ResourceNotFoundException;
 import com.uniconnect.backend.repository.PYQRepository;
+import com.uniconnect.backend.repository.PYQSpecifications;
 import com.uniconnect.backend.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
+import org.roaringbitmap.longlong.Roaring64NavigableMap;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 @Service
 @RequiredArgsConstructor
 public class PYQService {
 
+    // Ids matched by the content or subject filter go to the database this many at a time
+    private static final int MAX_IDS_PER_QUERY = 500;
+
+    private static final Sort NEWEST_FIRST = Sort.by(Sort.Order.desc("createdAt"), Sort.Order.desc("id"));
+
     private final PYQRepository pyqRepository;
     private final UserRepository userRepository;
-    private final CloudinaryService cloudinaryService;
+    private final FileBlobService fileBlobService;
+    private final PYQIngestionService pyqIngestionService;
+    private final SuggestIndex suggestIndex;
+    private final SubjectDictionary subjectDictionary;
+    private final PYQContentIndex pyqContentIndex;
+
+    // Returns as soon as the file is spooled and queued; storage and the PYQ row follow in the background
+    public PYQUploadJobView uploadPYQ(String subject, Integer year, String examType, MultipartFile file,
+            Authentication auth) throws IOException {
+        return pyqIngestionService.submit(subject, year, examType, file, auth);
+    }
 
-    @Transactional
-    public PYQ uploadPYQ(String subject, Integer year, String examType, MultipartFile file, Authentication auth)
-            throws IOException {
-        User user = userRepository.findByEmail(auth.getName())
-                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+    public PYQUploadJobView getUploadJob(Long jobId, Authentication auth) {
+        return pyqIngestionService.getJob(jobId, auth);
+    }
 
-        if (user.getUniversity() == null) {
-            throw new IllegalStateException("User must be associated with a university");
+    @Transactional(readOnly = true)
+    public CursorPage<PYQView> searchPYQs(Long universityId, PYQFilter filter, String cursor, int size) {
+        Specification<PYQ> spec = Specification.where(PYQSpecifications.inUniversity(universityId))
+                .and(PYQSpecifications.yearFrom(filter.getYearFrom()))
+                .and(PYQSpecifications.yearTo(filter.getYearTo()))
+                .and(PYQSpecifications.examType(filter.getExamType()))
+                .and(PYQSpecifications.uploadedBy(filter.getUploaderId()));
+        KeysetCursor position = cursor != null && !cursor.isEmpty() ? KeysetCursor.decode(cursor)
+                : new KeysetCursor(null, null);
+        spec = spec.and(PYQSpecifications.before(position.getCreatedAt(), position.getId()));
+
+        Roaring64NavigableMap ids = null;
+        if (filter.getSubject() != null && !filter.getSubject().isBlank()) {
+            SubjectDictionary.Match subjects = subjectDictionary.resolve(universityId, filter.getSubject(),
+                    filter.isFuzzy());
+            if (subjects.isEmpty()) {
+                return new CursorPage<>(List.of(), null, false);
+            }
+            if (subjects.spellings() != null) {
+                spec = spec.and(PYQSpecifications.subjectIn(subjects.spellings()));
+            } else {
+                ids = subjects.ids();
+            }
         }
-
-        Map<String, Object> uploadResult = cloudinaryService.upload(file, "pyqs");
-        if (uploadResult == null || uploadResult.get("secure_url") == null) {
-            throw new RuntimeException("Failed to upload file to Cloudinary");
+        if (filter.getQuery() != null && !filter.getQuery().isBlank()) {
+            Optional<Roaring64NavigableMap> indexed = pyqContentIndex.matches(universityId, filter.getQuery());
+            if (indexed.isEmpty()) {
+                // Still building: the database answers, more slowly
+                spec = spec.and(PYQSpecifications.textContains(filter.getQuery()));
+            } else if (ids == null) {
+                ids = indexed.get();
+            } else {
+                ids.and(indexed.get());
+            }
+        }
+        if (ids != null && ids.isEmpty()) {
+            return new CursorPage<>(List.of(), null, false);
         }
 
-        PYQ pyq = new PYQ();
-        pyq.setSubject(subject);
-        pyq.setYear(year);
-        pyq.setExamType(examType);
-        pyq.setFileUrl(uploadResult.get("secure_url").toString());
-        pyq.setFilePublicId(uploadResult.get("public_id") != null ? uploadResult.get("public_id").toString() : null);
-        pyq.setUploadedBy(user);
-        pyq.setUniversity(user.getUniversity());
+        // One extra row tells whether there is a next page without a COUNT(*)
+        List<PYQ> rows = ids == null ? newest(spec, size + 1)
+                : newestAmong(spec, subjectDictionary.newestFirst(universityId, ids, position.getCreatedAt(),
+                        position.getId()), size + 1);
+        boolean hasNext = rows.size() > size;
+        List<PYQView> content = rows.stream().limit(size).map(PYQView::from).toList();
+
+        String nextCursor = null;
+        if (hasNext) {
+            PYQView last = content.get(content.size() - 1);
+            nextCursor = new KeysetCursor(last.getCreatedAt(), last.getId()).encode();
+        }
+        return new CursorPage<>(content, nextCursor, hasNext);
+    }
 
-        return pyqRepository.save(pyq);
+    public List<Map<String, Object>> getSubjects(Long universityId, String prefix, boolean fuzzy, int limit) {
+        return subjectDictionary.suggest(universityId, prefix, fuzzy, limit);
     }
 
-    public List<PYQ> searchPYQs(Long universityId, String subject, Integer year) {
-        University university = new University();
-        university.setId(universityId);
+    private List<PYQ> newest(Specification<PYQ> spec, int limit) {
+        return pyqRepository.findBy(spec, q -> q.sortBy(NEWEST_FIRST).limit(limit).all());
+    }
 
-        if (subject != null && !subject.isEmpty()) {
-            return pyqRepository.findByUniversityAndSubjectContainingIgnoreCase(university, subject);
-        } else if (year != null) {
-            return pyqRepository.findByUniversityAndYear(university, year);
-        } else {
-            return pyqRepository.findByUniversity(university);
+    // Ids already newest first go to the database a bounded IN list at a time, until the page is full;
+    // every later id is older than the rows found so far, so usually one query fills it
+    private List<PYQ> newestAmong(Specification<PYQ> spec, List<Long> ordered, int limit) {
+        List<PYQ> rows = new ArrayList<>();
+        for (int from = 0; from < ordered.size() && rows.size() < limit; from += MAX_IDS_PER_QUERY) {
+            List<Long> chunk = ordered.subList(from, Math.min(from + MAX_IDS_PER_QUERY, ordered.size()));
+            rows.addAll(newest(spec.and(PYQSpecifications.idIn(chunk)), limit - rows.size()));
         }
+        rows.sort(Comparator.comparing(PYQ::getCreatedAt).thenComparing(PYQ::getId).reversed());
+        return rows.size() > limit ? rows.subList(0, limit) : rows;
     }
 
     @Transactional
@@ -76,14 +140,10 @@ public class PYQService {
             throw new IllegalStateException("You can only delete your own uploads");
         }
 
-        if (pyq.getFilePublicId() != null) {
-            try {
-                cloudinaryService.delete(pyq.getFilePublicId());
-            } catch (IOException e) {
-                System.err.println("Failed to delete file from Cloudinary: " + e.getMessage());
-            }
-        }
-
         pyqRepository.delete(pyq);
+        fileBlobService.release(pyq.getFileSha256(), pyq.getFilePublicId());
+        suggestIndex.removed(pyq.getUniversity().getId(), SuggestIndex.Kind.PYQ, id);
+        subjectDictionary.removed(pyq.getUniversity().getId(), id, pyq.getSubject());
+        pyqContentIndex.removed(pyq.getUniversity().getId(), id);
     }
 }
@@ -0,0 +1,195 @@
+package com.uniconnect.backend.service;
+
+import com.uniconnect.backend.repository.PostLikeRepository;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory "who liked this post" sets, one compressed bitmap of user ids per post.
+ * Bitmaps are loaded from {@code post_likes} on first use, in one query per batch of posts;
+ * ids of posts that do not exist are dropped rather than kept as empty bitmaps. Past
+ * {@code post.like-index.max-posts} bitmaps, loaded ones not used since the last eviction
+ * pass are evicted. Likes are written to the database before they are recorded here, so an
+ * evicted bitmap reloads complete. The bitmaps hold 32-bit ids; a user id beyond that range
+ * is answered from the database instead.
+ */
+@Component
+public class PostLikeIndex {
+
+    private static class Likes {
+        final RoaringBitmap users = new RoaringBitmap();
+        // Changes seen before the bitmap was loaded; replayed on top of the database snapshot
+        final RoaringBitmap added = new RoaringBitmap();
+        final RoaringBitmap removed = new RoaringBitmap();
+        boolean loaded;
+        // Cleared by each eviction pass; a bitmap still clear on the next pass is evicted
+        volatile boolean used = true;
+    }
+
+    private final PostLikeRepository postLikeRepository;
+    private final int maxPosts;
+    private final Map<Long, Likes> posts = new ConcurrentHashMap<>();
+
+    public PostLikeIndex(PostLikeRepository postLikeRepository,
+            @Value("${post.like-index.max-posts:100000}") int maxPosts) {
+        this.postLikeRepository = postLikeRepository;
+        this.maxPosts = maxPosts;
+    }
+
+    public boolean isLiked(Long postId, Long userId) {
+        if (!fits(userId)) {
+            return !postLikeRepository.findLikedPostIds(userId, List.of(postId)).isEmpty();
+        }
+        Likes likes = load(List.of(postId)).get(postId);
+        if (likes == null) {
+            return false;
+        }
+        synchronized (likes) {
+            return likes.users.contains(toInt(userId));
+        }
+    }
+
+    /** Ids of the given posts that the user has liked, answered from memory once the bitmaps are warm. */
+    public Set<Long> likedBy(Long userId, Collection<Long> postIds) {
+        if (!fits(userId)) {
+            return new HashSet<>(postLikeRepository.findLikedPostIds(userId, postIds));
+        }
+        int user = toInt(userId);
+        Set<Long> liked = new HashSet<>();
+        load(postIds).forEach((postId, likes) -> {
+            synchronized (likes) {
+                if (likes.users.contains(user)) {
+                    liked.add(postId);
+                }
+            }
+        });
+        return liked;
+    }
+
+    public void recordLike(Long postId, Long userId) {
+        if (!fits(userId)) {
+            return;
+        }
+        int user = toInt(userId);
+        Likes likes = posts.computeIfAbsent(postId, id -> new Likes());
+        synchronized (likes) {
+            likes.users.add(user);
+            if (!likes.loaded) {
+                likes.added.add(user);
+                likes.removed.remove(user);
+            }
+        }
+    }
+
+    public void recordUnlike(Long postId, Long userId) {
+        if (!fits(userId)) {
+            return;
+        }
+        int user = toInt(userId);
+        Likes likes = posts.computeIfAbsent(postId, id -> new Likes());
+        synchronized (likes) {
+            likes.users.remove(user);
+            if (!likes.loaded) {
+                likes.removed.add(user);
+                likes.added.remove(user);
+            }
+        }
+    }
+
+    public void discard(Long postId) {
+        posts.remove(postId);
+    }
+
+    private Map<Long, Likes> load(Collection<Long> postIds) {
+        Map<Long, Likes> result = new HashMap<>();
+        List<Long> missing = new ArrayList<>();
+        for (Long postId : postIds) {
+            Likes likes = posts.computeIfAbsent(postId, id -> new Likes());
+            likes.used = true;
+            result.put(postId, likes);
+            synchronized (likes) {
+                if (!likes.loaded) {
+                    missing.add(postId);
+                }
+            }
+        }
+        if (missing.isEmpty()) {
+            return result;
+        }
+
+        Map<Long, RoaringBitmap> snapshot = new HashMap<>();
+        for (Object[] row : postLikeRepository.findUserIdsByPostIds(missing)) {
+            RoaringBitmap users = snapshot.computeIfAbsent((Long) row[0], id -> new RoaringBitmap());
+            if (row[1] != null && fits((Long) row[1])) {
+                users.add(toInt((Long) row[1]));
+            }
+        }
+        for (Long postId : missing) {
+            Likes likes = result.get(postId);
+            if (!snapshot.containsKey(postId)) {
+                // No such post, or deleted meanwhile
+                posts.remove(postId, likes);
+                result.remove(postId);
+                continue;
+            }
+            synchronized (likes) {
+                if (likes.loaded) {
+                    continue;
+                }
+                RoaringBitmap users = snapshot.getOrDefault(postId, new RoaringBitmap());
+                users.or(likes.added);
+                users.andNot(likes.removed);
+                likes.users.clear();
+                likes.users.or(users);
+                likes.users.runOptimize();
+                likes.added.clear();
+                likes.removed.clear();
+                likes.loaded = true;
+            }
+        }
+        if (posts.size() > maxPosts) {
+            evict();
+        }
+        return result;
+    }
+
+    // Second chance: one pass clears the used marks, so a bitmap touched since survives the next
+    private synchronized void evict() {
+        for (int pass = 0; pass < 2 && posts.size() > maxPosts; pass++) {
+            for (Iterator<Map.Entry<Long, Likes>> it = posts.entrySet().iterator(); it.hasNext()
+                    && posts.size() > maxPosts;) {
+                Likes likes = it.next().getValue();
+                synchronized (likes) {
+                    // Changes recorded before the load are only held here until it finishes
+                    if (!likes.loaded) {
+                        continue;
+                    }
+                }
+                if (likes.used) {
+                    likes.used = false;
+                } else {
+                    it.remove();
+                }
+            }
+        }
+    }
+
+    private static boolean fits(Long userId) {
+        return userId >= 0 && userId <= Integer.MAX_VALUE;
+    }
+
+    private static int toInt(Long userId) {
+        return userId.intValue();
+    }
+}
@@ -0,0 +1,280 @@
+package com.uniconnect.backend.service;
+
+import com.uniconnect.backend.repository.PostRepository;
+import com.uniconnect.backend.search.InvertedIndex;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Full-text index over post content, one {@link InvertedIndex} per university.
+ * A university's index is built in the background on its first search (from its
+ * last persisted segment plus the posts committed since) and then kept current from
+ * post create/delete events. Until it is ready, {@link #search} returns empty and
+ * callers fall back to SQL.
+ */
+@Slf4j
+@Component
+public class PostSearchIndex {
+
+    private record Change(Long postId, String content) {
+    }
+
+    // A persisted index and when its snapshot was taken; null for a fresh index
+    private record Segment(InvertedIndex index, Instant takenAt) {
+    }
+
+    private static final class Shard {
+        final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        InvertedIndex index;
+        boolean building;
+        boolean dirty;
+        // Changes seen while the index is being built, replayed once it is in place
+        final List<Change> pending = new ArrayList<>();
+    }
+
+    private static final int CATCH_UP_BATCH = 1000;
+
+    private final PostRepository postRepository;
+    private final Path directory;
+    // How long a transaction may hold an id before committing; posts created that long before a
+    // snapshot may have committed after it with an id below the snapshot's highest
+    private final Duration catchUpWindow;
+    private final Map<Long, Shard> shards = new ConcurrentHashMap<>();
+    private final ExecutorService builder = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "post-search-builder");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public PostSearchIndex(PostRepository postRepository,
+            @Value("${search.index.dir:data/search-index}") String directory,
+            @Value("${search.index.catch-up-window-ms:600000}") long catchUpWindowMs) {
+        this.postRepository = postRepository;
+        this.directory = Paths.get(directory);
+        this.catchUpWindow = Duration.ofMillis(catchUpWindowMs);
+    }
+
+    public void postSaved(Long universityId, Long postId, String content) {
+        TransactionCallbacks.afterCommit(() -> apply(universityId, new Change(postId, content)));
+    }
+
+    public void postRemoved(Long universityId, Long postId) {
+        TransactionCallbacks.afterCommit(() -> apply(universityId, new Change(postId, null)));
+    }
+
+    /** One page of matching post ids, best first; empty while the university's index is still building. */
+    public Optional<InvertedIndex.Result> search(Long universityId, String query, int page, int size) {
+        Shard shard = shard(universityId);
+        shard.lock.readLock().lock();
+        try {
+            if (shard.index != null) {
+                return Optional.of(shard.index.search(query, page * size, size));
+            }
+        } finally {
+            shard.lock.readLock().unlock();
+        }
+        scheduleBuild(universityId, shard);
+        return Optional.empty();
+    }
+
+    private Shard shard(Long universityId) {
+        return shards.computeIfAbsent(universityId, id -> new Shard());
+    }
+
+    private void apply(Long universityId, Change change) {
+        Shard shard = shard(universityId);
+        shard.lock.writeLock().lock();
+        try {
+            if (shard.index == null) {
+                // Nothing to keep current until someone searches this university
+                if (shard.building) {
+                    shard.pending.add(change);
+                }
+                return;
+            }
+            applyTo(shard.index, change);
+            shard.dirty = true;
+        } finally {
+            shard.lock.writeLock().unlock();
+        }
+    }
+
+    private static void applyTo(InvertedIndex index, Change change) {
+        if (change.content() != null) {
+            index.add(change.postId(), change.content());
+        } else {
+            index.remove(change.postId());
+        }
+    }
+
+    private void scheduleBuild(Long universityId, Shard shard) {
+        shard.lock.writeLock().lock();
+        try {
+            if (shard.building || shard.index != null) {
+                return;
+            }
+            shard.building = true;
+        } finally {
+            shard.lock.writeLock().unlock();
+        }
+        builder.execute(() -> build(universityId, shard));
+    }
+
+    private void build(Long universityId, Shard shard) {
+        InvertedIndex index = null;
+        try {
+            Segment segment = load(universityId);
+            index = segment.index();
+
+            // Drop posts deleted since the segment was written, then add the ones created after it
+            Set<Long> live = new HashSet<>(postRepository.findIdsByUniversityId(universityId));
+            for (Long docId : new ArrayList<>(index.docIds())) {
+                if (!live.contains(docId)) {
+                    index.remove(docId);
+                }
+            }
+            Slice<Object[]> batch;
+            do {
+                batch = postRepository.findContentAfter(universityId, index.maxDocId(),
+                        PageRequest.of(0, CATCH_UP_BATCH));
+                for (Object[] row : batch) {
+                    index.add((Long) row[0], (String) row[1]);
+                }
+            } while (batch.hasNext());
+            // Ids are taken at insert, not commit: re-read recent posts for any that committed late
+            if (segment.takenAt() != null) {
+                LocalDateTime since = LocalDateTime.ofInstant(segment.takenAt().minus(catchUpWindow),
+                        ZoneId.systemDefault());
+                long afterId = 0;
+                do {
+                    batch = postRepository.findContentSince(universityId, since, afterId,
+                            PageRequest.of(0, CATCH_UP_BATCH));
+                    for (Object[] row : batch) {
+                        index.add((Long) row[0], (String) row[1]);
+                        afterId = (Long) row[0];
+                    }
+                } while (batch.hasNext());
+            }
+        } catch (RuntimeException e) {
+            log.warn("Building search index for university {} failed", universityId, e);
+            index = null;
+        }
+
+        shard.lock.writeLock().lock();
+        try {
+            shard.building = false;
+            if (index != null) {
+                for (Change change : shard.pending) {
+                    applyTo(index, change);
+                }
+                shard.index = index;
+                shard.dirty = true;
+            }
+            shard.pending.clear();
+        } finally {
+            shard.lock.writeLock().unlock();
+        }
+    }
+
+    // The file's modification time is set to when its snapshot was taken
+    private Segment load(Long universityId) {
+        Path file = segment(universityId);
+        if (Files.exists(file)) {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+                return new Segment(InvertedIndex.readFrom(in), Files.getLastModifiedTime(file).toInstant());
+            } catch (IOException e) {
+                log.warn("Discarding unreadable search segment {}", file, e);
+            }
+        }
+        return new Segment(new InvertedIndex(), null);
+    }
+
+    // Synchronized so the scheduled run and shutdown never write the same temp file at once
+    @Scheduled(fixedDelayString = "${search.index.flush-interval-ms:300000}")
+    public synchronized void persist() {
+        shards.forEach((universityId, shard) -> {
+            // Encoded in memory under the read lock; the disk write happens after writers are let back in
+            byte[] segment;
+            Instant takenAt;
+            shard.lock.readLock().lock();
+            try {
+                if (shard.index == null || !shard.dirty) {
+                    return;
+                }
+                takenAt = Instant.now();
+                ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+                try (DataOutputStream out = new DataOutputStream(buffer)) {
+                    shard.index.writeTo(out);
+                }
+                segment = buffer.toByteArray();
+                // Changes from here on mark the shard dirty again for the next run
+                shard.dirty = false;
+            } catch (IOException e) {
+                log.warn("Encoding search index for university {} failed", universityId, e);
+                return;
+            } finally {
+                shard.lock.readLock().unlock();
+            }
+            try {
+                write(universityId, segment, takenAt);
+            } catch (IOException e) {
+                log.warn("Persisting search index for university {} failed", universityId, e);
+                shard.lock.writeLock().lock();
+                try {
+                    shard.dirty = true;
+                } finally {
+                    shard.lock.writeLock().unlock();
+                }
+            }
+        });
+    }
+
+    private void write(Long universityId, byte[] segment, Instant takenAt) throws IOException {
+        Files.createDirectories(directory);
+        Path file = segment(universityId);
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        Files.write(temp, segment);
+        Files.setLastModifiedTime(temp, FileTime.from(takenAt));
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private Path segment(Long universityId) {
+        return directory.resolve("posts-" + universityId + ".seg");
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        builder.shutdownNow();
+        persist();
+    }
+}
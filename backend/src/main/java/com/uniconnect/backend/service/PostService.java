@@ -1,33 +1,65 @@
 package com.uniconnect.backend.service;
 
+import com.uniconnect.backend.dto.CommentView;
+import com.uniconnect.backend.dto.CursorPage;
+import com.uniconnect.backend.dto.KeysetCursor;
 import com.uniconnect.backend.dto.PostCreateRequest;
+import com.uniconnect.backend.dto.PostView;
 import com.uniconnect.backend.entity.Post;
+import com.uniconnect.backend.entity.PostLike;
 import com.uniconnect.backend.entity.Comment;
 import com.uniconnect.backend.entity.University;
 import com.uniconnect.backend.entity.User;
 import com.uniconnect.backend.entity.enums.PostType;
+import com.uniconnect.backend.exception.BadRequestException;
 import com.uniconnect.backend.exception.ResourceNotFoundException;
 import com.uniconnect.backend.repository.PostRepository;
 import com.uniconnect.backend.repository.CommentRepository;
+import com.uniconnect.backend.repository.PostLikeRepository;
 import com.uniconnect.backend.repository.UserRepository;
+import com.uniconnect.backend.search.InvertedIndex;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
 @Service
 @RequiredArgsConstructor
 public class PostService {
 
+    private static final int MAX_LIKED_LOOKUP = 100;
+
     private final PostRepository postRepository;
     private final CommentRepository commentRepository;
     private final UserRepository userRepository;
+    private final FeedCache feedCache;
+    private final LikeCounter likeCounter;
+    private final PostLikeRepository postLikeRepository;
+    private final PostLikeIndex postLikeIndex;
+    private final ContributorLeaderboard contributorLeaderboard;
+    private final HotFeedRanker hotFeedRanker;
+    private final PostSearchIndex postSearchIndex;
+    private final SuggestIndex suggestIndex;
+
+    @Value("${feed.comment-preview-size:2}")
+    private int commentPreviewSize;
 
     @Transactional
-    public Post createPost(PostCreateRequest request, Authentication auth) {
+    public PostView createPost(PostCreateRequest request, Authentication auth) {
         User user = userRepository.findByEmail(auth.getName())
                 .orElseThrow(() -> new ResourceNotFoundException("User not found"));
 
@@ -42,33 +74,249 @@ public class PostService {
         post.setType(request.getType() != null ? PostType.valueOf(request.getType()) : PostType.NORMAL);
         post.setAnonymous(request.getIsAnonymous());
 
-        return postRepository.save(post);
+        Post saved = postRepository.save(post);
+        feedCache.invalidate(user.getUniversity().getId());
+        contributorLeaderboard.recordPost(user.getUniversity().getId(), saved.getId(), user.getId(),
+                user.getName(), saved.getCreatedAt());
+        hotFeedRanker.postChanged(user.getUniversity().getId(), saved.getId(), saved.getType(), saved.getCreatedAt(),
+                0, 0);
+        postSearchIndex.postSaved(user.getUniversity().getId(), saved.getId(), saved.getContent());
+        suggestIndex.added(user.getUniversity().getId(), SuggestIndex.Kind.POST, saved.getId(), saved.getContent());
+        return PostView.from(saved);
     }
 
-    public Page<Post> getFeed(Long universityId, PostType type, int page, int size) {
+    @Transactional(readOnly = true)
+    public Page<PostView> getFeed(Long universityId, PostType type, int page, int size, Authentication auth) {
         Pageable pageable = PageRequest.of(page, size);
         if (universityId == null) {
-            return postRepository.findAll(pageable);
+            return postRepository.findAll(pageable).map(PostView::from);
         }
+
+        boolean cacheable = feedCache.isCacheable(universityId, page, size);
+        FeedCache.PageKey key = new FeedCache.PageKey(type, page, size, false);
+        long version = 0;
+        if (cacheable) {
+            Page<PostView> cached = feedCache.get(universityId, key);
+            if (cached != null) {
+                return decorate(cached, auth);
+            }
+            version = feedCache.version(universityId);
+        }
+
         University university = new University();
         university.setId(universityId);
 
-        if (type != null) {
-            return postRepository.findByUniversityAndTypeOrderByCreatedAtDesc(university, type, pageable);
+        Page<PostView> result = type != null
+                ? postRepository.findFeedViewsByType(university, type, pageable)
+                : postRepository.findFeedViews(university, pageable);
+        attachComments(result.getContent());
+
+        if (cacheable) {
+            feedCache.put(universityId, key, version, result, result.getContent());
         }
-        return postRepository.findByUniversityOrderByCreatedAtDesc(university, pageable);
+        return decorate(result, auth);
     }
 
-    @Transactional
-    public Post likePost(Long postId) {
+    @Transactional(readOnly = true)
+    public Page<PostView> getHotFeed(Long universityId, PostType type, int page, int size, Authentication auth) {
+        Map.Entry<List<Long>, Integer> ranked = hotFeedRanker.page(universityId, type, page, size);
+        List<Long> ids = ranked.getKey();
+
+        // Rank comes from memory; the database is only asked for the rows of this page, by primary key
+        Map<Long, PostView> byId = new HashMap<>();
+        if (!ids.isEmpty()) {
+            postRepository.findViewsByIds(ids).forEach(view -> byId.put(view.getId(), view));
+        }
+        List<PostView> ordered = ids.stream().map(byId::get).filter(java.util.Objects::nonNull).toList();
+        attachComments(ordered);
+        return decorate(new PageImpl<>(ordered, PageRequest.of(page, size), ranked.getValue()), auth);
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPage<PostView> getFeedByCursor(Long universityId, PostType type, String cursor, int size,
+            Authentication auth) {
+        boolean firstPage = cursor == null || cursor.isEmpty();
+        boolean cacheable = firstPage && feedCache.isCacheable(universityId, 0, size);
+        FeedCache.PageKey key = new FeedCache.PageKey(type, 0, size, true);
+        long version = 0;
+        if (cacheable) {
+            CursorPage<PostView> cached = feedCache.get(universityId, key);
+            if (cached != null) {
+                return decorate(cached, auth);
+            }
+            version = feedCache.version(universityId);
+        }
+
+        University university = new University();
+        university.setId(universityId);
+        Pageable pageable = PageRequest.of(0, size);
+
+        Slice<PostView> slice;
+        if (firstPage) {
+            slice = type != null
+                    ? postRepository.findFeedViewsFirstByType(university, type, pageable)
+                    : postRepository.findFeedViewsFirst(university, pageable);
+        } else {
+            KeysetCursor position = KeysetCursor.decode(cursor);
+            slice = type != null
+                    ? postRepository.findFeedViewsBeforeByType(university, type, position.getCreatedAt(),
+                            position.getId(), pageable)
+                    : postRepository.findFeedViewsBefore(university, position.getCreatedAt(), position.getId(),
+                            pageable);
+        }
+        attachComments(slice.getContent());
+
+        String nextCursor = null;
+        if (slice.hasNext() && slice.hasContent()) {
+            PostView last = slice.getContent().get(slice.getNumberOfElements() - 1);
+            nextCursor = new KeysetCursor(last.getCreatedAt(), last.getId()).encode();
+        }
+        CursorPage<PostView> result = new CursorPage<>(slice.getContent(), nextCursor, slice.hasNext());
+
+        if (cacheable) {
+            feedCache.put(universityId, key, version, result, result.getContent());
+        }
+        return decorate(result, auth);
+    }
+
+    public java.util.Map<String, Object> getFeedCacheStats() {
+        return feedCache.stats();
+    }
+
+    // Feed entries carry only the newest few comments: two queries per page however long the threads are
+    private void attachComments(List<PostView> posts) {
+        if (posts.isEmpty() || commentPreviewSize <= 0) {
+            return;
+        }
+        Map<Long, PostView> byId = new HashMap<>();
+        posts.forEach(post -> byId.put(post.getId(), post));
+        List<Long> latest = commentRepository.findLatestIdsByPostIds(byId.keySet(), commentPreviewSize);
+        if (latest.isEmpty()) {
+            return;
+        }
+        for (CommentView comment : commentRepository.findViewsByIds(latest)) {
+            byId.get(comment.getPostId()).getComments().add(comment);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPage<CommentView> getComments(Long postId, String cursor, int size) {
+        if (!postRepository.existsById(postId)) {
+            throw new ResourceNotFoundException("Post not found");
+        }
+
+        Pageable pageable = PageRequest.of(0, size);
+        Slice<CommentView> slice;
+        if (cursor == null || cursor.isEmpty()) {
+            slice = commentRepository.findViewsFirst(postId, pageable);
+        } else {
+            KeysetCursor position = KeysetCursor.decode(cursor);
+            slice = commentRepository.findViewsAfter(postId, position.getCreatedAt(), position.getId(), pageable);
+        }
+
+        String nextCursor = null;
+        if (slice.hasNext() && slice.hasContent()) {
+            CommentView last = slice.getContent().get(slice.getNumberOfElements() - 1);
+            nextCursor = new KeysetCursor(last.getCreatedAt(), last.getId()).encode();
+        }
+        return new CursorPage<>(slice.getContent(), nextCursor, slice.hasNext());
+    }
+
+    // Runs while the context starts, before the web server takes any traffic
+    @PostConstruct
+    public void backfillCommentCounts() {
+        postRepository.backfillCommentCounts();
+    }
+
+    private Page<PostView> decorate(Page<PostView> page, Authentication auth) {
+        List<PostView> content = decorate(page.getContent(), currentUserId(auth));
+        return new PageImpl<>(content, page.getPageable(), page.getTotalElements());
+    }
+
+    private CursorPage<PostView> decorate(CursorPage<PostView> page, Authentication auth) {
+        return new CursorPage<>(decorate(page.getContent(), currentUserId(auth)), page.getNextCursor(),
+                page.isHasNext());
+    }
+
+    // Adds likes still waiting to be flushed and the caller's own like state to per-request copies
+    private List<PostView> decorate(List<PostView> posts, Long userId) {
+        Set<Long> liked = userId != null
+                ? postLikeIndex.likedBy(userId, posts.stream().map(PostView::getId).toList())
+                : Set.of();
+        return posts.stream()
+                .map(post -> post.withLikes((int) (post.getLikeCount() + likeCounter.pendingDelta(post.getId())),
+                        liked.contains(post.getId())))
+                .toList();
+    }
+
+    private PostView decorate(Post post, Long userId) {
+        PostView view = PostView.from(post);
+        return decorate(List.of(view), userId).get(0);
+    }
+
+    private Long currentUserId(Authentication auth) {
+        if (auth == null) {
+            return null;
+        }
+        return userRepository.findByEmail(auth.getName()).map(User::getId).orElse(null);
+    }
+
+    public PostView likePost(Long postId, Authentication auth) {
+        Post post = postRepository.findById(postId)
+                .orElseThrow(() -> new ResourceNotFoundException("Post not found"));
+
+        User user = userRepository.findByEmail(auth.getName())
+                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+
+        if (postLikeIndex.isLiked(postId, user.getId())) {
+            return decorate(post, user.getId());
+        }
+
+        try {
+            postLikeRepository.save(new PostLike(null, post, user, null));
+        } catch (DataIntegrityViolationException e) {
+            // A concurrent request from the same user won the unique (post_id, user_id) constraint
+            return decorate(post, user.getId());
+        }
+        postLikeIndex.recordLike(postId, user.getId());
+        likeCounter.add(postId, 1);
+        publishScore(post, 0);
+        return decorate(post, user.getId());
+    }
+
+    public PostView unlikePost(Long postId, Authentication auth) {
         Post post = postRepository.findById(postId)
                 .orElseThrow(() -> new ResourceNotFoundException("Post not found"));
-        post.setLikeCount(post.getLikeCount() + 1);
-        return postRepository.save(post);
+
+        User user = userRepository.findByEmail(auth.getName())
+                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+
+        if (postLikeRepository.deleteByPostIdAndUserId(postId, user.getId()) > 0) {
+            postLikeIndex.recordUnlike(postId, user.getId());
+            likeCounter.add(postId, -1);
+            publishScore(post, 0);
+        }
+        return decorate(post, user.getId());
+    }
+
+    public java.util.Set<Long> getLikedPostIds(java.util.List<Long> postIds, Authentication auth) {
+        if (postIds.size() > MAX_LIKED_LOOKUP) {
+            throw new BadRequestException("At most " + MAX_LIKED_LOOKUP + " post ids can be checked at once");
+        }
+        User user = userRepository.findByEmail(auth.getName())
+                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+        return postLikeIndex.likedBy(user.getId(), postIds);
+    }
+
+    private void publishScore(Post post, int newComments) {
+        long likes = (post.getLikeCount() != null ? post.getLikeCount() : 0) + likeCounter.pendingDelta(post.getId());
+        long comments = (post.getCommentCount() != null ? post.getCommentCount() : 0) + newComments;
+        hotFeedRanker.postChanged(post.getUniversity().getId(), post.getId(), post.getType(), post.getCreatedAt(),
+                likes, comments);
     }
 
     @Transactional
-    public Comment addComment(Long postId, String content, Authentication auth) {
+    public CommentView addComment(Long postId, String content, Authentication auth) {
         Post post = postRepository.findById(postId)
                 .orElseThrow(() -> new ResourceNotFoundException("Post not found"));
 
@@ -81,7 +329,11 @@ public class PostService {
         comment.setContent(content);
         comment.setAnonymous(post.isAnonymous());
 
-        return commentRepository.save(comment);
+        Comment saved = commentRepository.save(comment);
+        postRepository.adjustCommentCount(postId, 1);
+        feedCache.invalidate(post.getUniversity().getId());
+        publishScore(post, 1);
+        return CommentView.from(saved);
     }
 
     @Transactional
@@ -96,7 +348,17 @@ public class PostService {
             throw new IllegalStateException("You can only delete your own posts");
         }
 
+        postLikeRepository.deleteByPostId(postId);
+        commentRepository.deleteByPostId(postId);
         postRepository.delete(post);
+        likeCounter.discard(postId);
+        postLikeIndex.discard(postId);
+        feedCache.invalidate(post.getUniversity().getId());
+        contributorLeaderboard.removePost(post.getUniversity().getId(), postId, user.getId(),
+                post.getCreatedAt());
+        hotFeedRanker.postRemoved(post.getUniversity().getId(), postId, post.getType());
+        postSearchIndex.postRemoved(post.getUniversity().getId(), postId);
+        suggestIndex.removed(post.getUniversity().getId(), SuggestIndex.Kind.POST, postId);
     }
 
     @Transactional
@@ -112,29 +374,34 @@ public class PostService {
         }
 
         commentRepository.delete(comment);
+        postRepository.adjustCommentCount(comment.getPost().getId(), -1);
+        publishScore(comment.getPost(), -1);
+        feedCache.invalidate(comment.getPost().getUniversity().getId());
     }
 
-    public Page<Post> searchPosts(Long universityId, String query, int page, int size) {
-        University university = new University();
-        university.setId(universityId);
-        return postRepository.findByUniversityAndContentContainingIgnoreCaseOrderByCreatedAtDesc(university, query,
-                PageRequest.of(page, size));
+    @Transactional(readOnly = true)
+    public Page<PostView> searchPosts(Long universityId, String query, int page, int size, Authentication auth) {
+        Optional<InvertedIndex.Result> indexed = postSearchIndex.search(universityId, query, page, size);
+        if (indexed.isEmpty()) {
+            University university = new University();
+            university.setId(universityId);
+            Page<PostView> result = postRepository.searchViews(university, query, PageRequest.of(page, size));
+            attachComments(result.getContent());
+            return decorate(result, auth);
+        }
+
+        List<Long> ids = indexed.get().hits().stream().map(InvertedIndex.Hit::docId).toList();
+        Map<Long, PostView> byId = new HashMap<>();
+        if (!ids.isEmpty()) {
+            postRepository.findViewsByIds(ids).forEach(view -> byId.put(view.getId(), view));
+        }
+        List<PostView> ordered = ids.stream().map(byId::get).filter(java.util.Objects::nonNull).toList();
+        attachComments(ordered);
+        return decorate(new PageImpl<>(ordered, PageRequest.of(page, size), indexed.get().total()), auth);
     }
 
-    public java.util.List<java.util.Map<String, Object>> getTopContributors(Long universityId) {
-        University university = new University();
-        university.setId(universityId);
-        java.util.List<Object[]> results = postRepository.findTopContributors(university,
-                org.springframework.data.domain.PageRequest.of(0, 5));
-
-        return results.stream().map(result -> {
-            User user = (User) result[0];
-            Long count = (Long) result[1];
-            java.util.Map<String, Object> map = new java.util.HashMap<>();
-            map.put("id", user.getId());
-            map.put("name", user.getName());
-            map.put("postCount", count);
-            return map;
-        }).collect(java.util.stream.Collectors.toList());
+    public List<Map<String, Object>> getTopContributors(Long universityId, ContributorLeaderboard.Window window,
+            int limit) {
+        return contributorLeaderboard.top(universityId, window, limit);
     }
 }
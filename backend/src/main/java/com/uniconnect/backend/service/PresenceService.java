@@ -0,0 +1,163 @@
+package com.uniconnect.backend.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Who is online and who is typing to whom, kept only in memory and fed by client heartbeats.
+ * Each user has one fixed-size entry, however often they beat. Expiry runs on a hashed timing
+ * wheel: an entry sits in the slot of its next deadline and each tick looks at one slot, so
+ * there are no per-entry timers. A heartbeat that moves a deadline leaves the old slot to be
+ * cleaned up when the wheel reaches it. Lookups also check deadlines themselves, so the tick
+ * only bounds how long an expired entry takes memory, not how long it reads as online.
+ */
+@Component
+public class PresenceService {
+
+    public record Status(boolean online, boolean typing) {
+    }
+
+    private static final Status OFFLINE = new Status(false, false);
+
+    private static final class Entry {
+        volatile long onlineUntil;
+        // The partner being typed to, or 0
+        volatile long typingTo;
+        volatile long typingUntil;
+        // Slot of the next deadline; changed only inside the entries map's compute calls
+        int slot = -1;
+    }
+
+    private final long ttlMs;
+    private final long typingTtlMs;
+    private final long tickMs;
+    private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+    private final List<Set<Long>> wheel;
+    private final LongSupplier clock;
+    private long lastTick;
+
+    @Autowired
+    public PresenceService(@Value("${chat.presence.ttl-ms:30000}") long ttlMs,
+            @Value("${chat.presence.typing-ttl-ms:5000}") long typingTtlMs,
+            @Value("${chat.presence.tick-ms:1000}") long tickMs) {
+        this(ttlMs, typingTtlMs, tickMs, System::currentTimeMillis);
+    }
+
+    PresenceService(long ttlMs, long typingTtlMs, long tickMs, LongSupplier clock) {
+        this.ttlMs = ttlMs;
+        this.typingTtlMs = Math.min(typingTtlMs, ttlMs);
+        this.tickMs = tickMs;
+        this.clock = clock;
+        // One revolution spans the longest deadline, so a slot never holds entries for a later lap
+        int slots = (int) (ttlMs / tickMs) + 3;
+        this.wheel = new ArrayList<>(slots);
+        for (int i = 0; i < slots; i++) {
+            wheel.add(ConcurrentHashMap.newKeySet());
+        }
+        this.lastTick = clock.getAsLong() / tickMs;
+    }
+
+    public long getTypingTtlMs() {
+        return typingTtlMs;
+    }
+
+    /** Marks the user online, and typing to {@code typingTo} when it is set. */
+    public void heartbeat(Long userId, Long typingTo) {
+        long now = clock.getAsLong();
+        entries.compute(userId, (id, entry) -> {
+            if (entry == null) {
+                entry = new Entry();
+            }
+            entry.onlineUntil = now + ttlMs;
+            if (typingTo != null) {
+                entry.typingTo = typingTo;
+                entry.typingUntil = now + typingTtlMs;
+            } else {
+                entry.typingTo = 0;
+            }
+            schedule(id, entry);
+            return entry;
+        });
+    }
+
+    public void stopTyping(Long userId) {
+        Entry entry = entries.get(userId);
+        if (entry != null) {
+            entry.typingTo = 0;
+        }
+    }
+
+    /** Presence of each user as the viewer sees it: typing means typing to the viewer. */
+    public Map<Long, Status> statuses(Long viewerId, Collection<Long> userIds) {
+        long now = clock.getAsLong();
+        Map<Long, Status> statuses = new HashMap<>();
+        for (Long userId : userIds) {
+            Entry entry = entries.get(userId);
+            if (entry == null || entry.onlineUntil <= now) {
+                statuses.put(userId, OFFLINE);
+                continue;
+            }
+            boolean typing = entry.typingTo == viewerId && entry.typingUntil > now;
+            statuses.put(userId, new Status(true, typing));
+        }
+        return statuses;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    @Scheduled(fixedRateString = "${chat.presence.tick-ms:1000}")
+    public synchronized void advance() {
+        long now = clock.getAsLong();
+        long tick = now / tickMs;
+        // A late run catches up, but one revolution already visits every slot
+        for (long t = Math.max(lastTick + 1, tick - wheel.size() + 1); t <= tick; t++) {
+            expire((int) (t % wheel.size()), now);
+        }
+        lastTick = tick;
+    }
+
+    private void expire(int slot, long now) {
+        Set<Long> due = wheel.get(slot);
+        for (Long userId : due) {
+            due.remove(userId);
+            entries.computeIfPresent(userId, (id, entry) -> {
+                if (entry.slot != slot) {
+                    // Moved on by a later heartbeat
+                    return entry;
+                }
+                if (entry.onlineUntil <= now) {
+                    return null;
+                }
+                if (entry.typingTo != 0 && entry.typingUntil <= now) {
+                    entry.typingTo = 0;
+                }
+                entry.slot = -1;
+                schedule(id, entry);
+                return entry;
+            });
+        }
+    }
+
+    private void schedule(Long userId, Entry entry) {
+        long deadline = entry.typingTo != 0 ? Math.min(entry.onlineUntil, entry.typingUntil) : entry.onlineUntil;
+        // The first tick after the deadline, so the entry has expired by the time its slot comes up
+        int slot = (int) ((deadline / tickMs + 1) % wheel.size());
+        if (entry.slot != slot) {
+            entry.slot = slot;
+            wheel.get(slot).add(userId);
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.uniconnect.backend.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Global search. Every source is queried concurrently on a bounded pool with its own
+ * deadline; a source that is slow, failing or rejected contributes an empty result and
+ * a status instead of holding up the others. A source past its deadline is cancelled,
+ * which interrupts its thread. The pool is private to this service rather than an
+ * {@code Executor} bean, which would replace Boot's application task executor.
+ */
+@Slf4j
+@Service
+public class SearchService {
+
+    public enum Status {
+        OK, TIMEOUT, ERROR, REJECTED
+    }
+
+    private final PostService postService;
+    private final MarketplaceService marketplaceService;
+    private final ThreadPoolExecutor executor;
+    private final long postsTimeoutMs;
+    private final long marketplaceTimeoutMs;
+
+    public SearchService(PostService postService, MarketplaceService marketplaceService,
+            @Value("${search.fanout.threads:8}") int threads,
+            @Value("${search.fanout.queue-capacity:64}") int queueCapacity,
+            @Value("${search.timeout.posts-ms:800}") long postsTimeoutMs,
+            @Value("${search.timeout.marketplace-ms:800}") long marketplaceTimeoutMs) {
+        this.postService = postService;
+        this.marketplaceService = marketplaceService;
+        this.postsTimeoutMs = postsTimeoutMs;
+        this.marketplaceTimeoutMs = marketplaceTimeoutMs;
+
+        // Bounded on both threads and queue: when search is saturated, sources are rejected instead of piling up
+        AtomicInteger count = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), r -> {
+                    Thread thread = new Thread(r, "search-" + count.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    public Map<String, Object> search(Long universityId, String query, Authentication auth) {
+        Map<String, CompletableFuture<Map.Entry<Status, Object>>> sources = new LinkedHashMap<>();
+        sources.put("posts", submit("posts", postsTimeoutMs,
+                () -> postService.searchPosts(universityId, query, 0, 10, auth).getContent()));
+        sources.put("marketplace", submit("marketplace", marketplaceTimeoutMs,
+                () -> marketplaceService.searchItems(universityId, query)));
+
+        // Each future completes by its own deadline at the latest, so this waits for the slowest budget
+        CompletableFuture.allOf(sources.values().toArray(new CompletableFuture<?>[0])).join();
+
+        Map<String, Object> results = new HashMap<>();
+        Map<String, Status> status = new LinkedHashMap<>();
+        sources.forEach((name, future) -> {
+            Map.Entry<Status, Object> outcome = future.join();
+            results.put(name, outcome.getValue());
+            status.put(name, outcome.getKey());
+        });
+        results.put("status", status);
+        return results;
+    }
+
+    private CompletableFuture<Map.Entry<Status, Object>> submit(String name, long timeoutMs,
+            Supplier<Object> source) {
+        CompletableFuture<Object> future = new CompletableFuture<>();
+        Future<?> task;
+        try {
+            task = executor.submit(() -> {
+                try {
+                    future.complete(source.get());
+                } catch (RuntimeException e) {
+                    future.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.completedFuture(Map.entry(Status.REJECTED, List.of()));
+        }
+        return future
+                .orTimeout(timeoutMs, TimeUnit.MILLISECONDS)
+                .handle((result, error) -> {
+                    if (error == null) {
+                        return Map.entry(Status.OK, result);
+                    }
+                    // Frees the pool thread, or drops the task if it has not started yet
+                    task.cancel(true);
+                    Throwable cause = error.getCause() != null ? error.getCause() : error;
+                    if (cause instanceof TimeoutException) {
+                        return Map.entry(Status.TIMEOUT, List.of());
+                    }
+                    log.warn("Search source {} failed", name, cause);
+                    return Map.entry(Status.ERROR, List.of());
+                });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
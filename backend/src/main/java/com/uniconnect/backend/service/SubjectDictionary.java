@@ -0,0 +1,231 @@
+package com.uniconnect.backend.service;
+
+import com.uniconnect.backend.repository.PYQRepository;
+import lombok.RequiredArgsConstructor;
+import org.roaringbitmap.longlong.Roaring64NavigableMap;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The distinct PYQ subjects of each university, keyed by their normalized spelling.
+ * Subject filters are resolved here to the exact stored spellings, so the database
+ * only ever sees {@code subject IN (...)} on an indexed column. Each spelling keeps
+ * the ids of its PYQs, which makes replayed create/delete events harmless, and each
+ * PYQ its creation time, so any set of PYQ ids can be put in feed order here.
+ */
+@Component
+@RequiredArgsConstructor
+public class SubjectDictionary {
+
+    private static final int MAX_EXPANSION = 50;
+
+    private static final class Subject {
+        // Stored spellings ("Data Structures", "data structures") -> ids of the PYQs using them
+        final Map<String, Roaring64NavigableMap> spellings = new TreeMap<>();
+
+        long count() {
+            return spellings.values().stream().mapToLong(Roaring64NavigableMap::getLongCardinality).sum();
+        }
+    }
+
+    private static final class Dictionary {
+        final TreeMap<String, Subject> subjects = new TreeMap<>();
+        final Map<Long, LocalDateTime> created = new HashMap<>();
+        volatile boolean loaded;
+    }
+
+    private final PYQRepository pyqRepository;
+    private final Map<Long, Dictionary> dictionaries = new ConcurrentHashMap<>();
+
+    public void added(Long universityId, Long pyqId, String subject, LocalDateTime createdAt) {
+        TransactionCallbacks.afterCommit(() -> apply(universityId, pyqId, subject, createdAt));
+    }
+
+    public void removed(Long universityId, Long pyqId, String subject) {
+        TransactionCallbacks.afterCommit(() -> apply(universityId, pyqId, subject, null));
+    }
+
+    /**
+     * The PYQs of the subjects matching {@code query}: those starting with it, or with
+     * {@code fuzzy}, also those within a small edit distance of it (or of their own prefix).
+     */
+    public Match resolve(Long universityId, String query, boolean fuzzy) {
+        String key = normalize(query);
+        Dictionary dictionary = load(universityId);
+        synchronized (dictionary) {
+            List<Subject> subjects = matches(dictionary, key, fuzzy);
+            List<String> spellings = new ArrayList<>();
+            subjects.forEach(subject -> spellings.addAll(subject.spellings.keySet()));
+            if (spellings.size() <= MAX_EXPANSION) {
+                return new Match(spellings, null);
+            }
+            // Keeps the IN list bounded; past the cap the same PYQs are named by id instead
+            Roaring64NavigableMap ids = new Roaring64NavigableMap();
+            subjects.forEach(subject -> subject.spellings.values().forEach(ids::or));
+            return new Match(null, ids);
+        }
+    }
+
+    /** Matching subjects as their stored spellings, or when there are too many to list, as PYQ ids. */
+    public record Match(List<String> spellings, Roaring64NavigableMap ids) {
+        public boolean isEmpty() {
+            return spellings != null ? spellings.isEmpty() : ids.isEmpty();
+        }
+    }
+
+    /**
+     * The given PYQ ids positioned before {@code (createdAt, id)}, or all of them without a
+     * position, newest first. Ids not seen here yet were only just committed, so they lead.
+     */
+    public List<Long> newestFirst(Long universityId, Roaring64NavigableMap ids, LocalDateTime createdAt, Long id) {
+        Dictionary dictionary = load(universityId);
+        List<Long> unseen = new ArrayList<>();
+        List<Map.Entry<Long, LocalDateTime>> seen = new ArrayList<>();
+        synchronized (dictionary) {
+            ids.forEach(pyqId -> {
+                LocalDateTime at = dictionary.created.get(pyqId);
+                if (at == null) {
+                    unseen.add(pyqId);
+                } else if (createdAt == null || at.isBefore(createdAt) || (at.equals(createdAt) && pyqId < id)) {
+                    seen.add(Map.entry(pyqId, at));
+                }
+            });
+        }
+        seen.sort(Map.Entry.<Long, LocalDateTime>comparingByValue().thenComparing(Map.Entry.<Long, LocalDateTime>comparingByKey())
+                .reversed());
+        unseen.sort(Comparator.reverseOrder());
+        List<Long> ordered = new ArrayList<>(unseen.size() + seen.size());
+        ordered.addAll(unseen);
+        seen.forEach(entry -> ordered.add(entry.getKey()));
+        return ordered;
+    }
+
+    /** Subjects for a lookup box, most papers first. */
+    public List<Map<String, Object>> suggest(Long universityId, String prefix, boolean fuzzy, int limit) {
+        Dictionary dictionary = load(universityId);
+        synchronized (dictionary) {
+            List<Map.Entry<String, Long>> ranked = new ArrayList<>();
+            for (Subject subject : matches(dictionary, normalize(prefix), fuzzy)) {
+                // Show the spelling most papers use
+                String display = subject.spellings.entrySet().stream()
+                        .max(Comparator.comparingLong(e -> e.getValue().getLongCardinality()))
+                        .map(Map.Entry::getKey).orElseThrow();
+                ranked.add(Map.entry(display, subject.count()));
+            }
+            ranked.sort(Map.Entry.<String, Long>comparingByValue().reversed());
+
+            List<Map<String, Object>> result = new ArrayList<>();
+            for (Map.Entry<String, Long> entry : ranked.subList(0, Math.min(limit, ranked.size()))) {
+                Map<String, Object> subject = new LinkedHashMap<>();
+                subject.put("subject", entry.getKey());
+                subject.put("count", entry.getValue());
+                result.add(subject);
+            }
+            return result;
+        }
+    }
+
+    private List<Subject> matches(Dictionary dictionary, String key, boolean fuzzy) {
+        if (key.isEmpty()) {
+            return new ArrayList<>(dictionary.subjects.values());
+        }
+        List<Subject> matches = new ArrayList<>(
+                dictionary.subjects.subMap(key, key + Character.MAX_VALUE).values());
+        if (fuzzy) {
+            int maxEdits = key.length() <= 4 ? 1 : 2;
+            dictionary.subjects.forEach((name, subject) -> {
+                if (!name.startsWith(key) && (editDistance(key, name) <= maxEdits
+                        || editDistance(key, name.substring(0, Math.min(name.length(), key.length()))) <= maxEdits)) {
+                    matches.add(subject);
+                }
+            });
+        }
+        return matches;
+    }
+
+    private static int editDistance(String a, String b) {
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            for (int j = 1; j <= b.length(); j++) {
+                int substitution = previous[j - 1] + (a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1);
+                current[j] = Math.min(substitution, Math.min(previous[j], current[j - 1]) + 1);
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[b.length()];
+    }
+
+    private static String normalize(String subject) {
+        return subject == null ? "" : subject.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+
+    // A creation time means the PYQ was added, none that it was removed
+    private void apply(Long universityId, Long pyqId, String spelling, LocalDateTime createdAt) {
+        Dictionary dictionary = dictionaries.get(universityId);
+        if (dictionary == null) {
+            return;
+        }
+        synchronized (dictionary) {
+            // An unloaded dictionary reads this PYQ from the database when it loads
+            if (dictionary.loaded) {
+                put(dictionary, pyqId, spelling, createdAt);
+            }
+        }
+    }
+
+    private static void put(Dictionary dictionary, Long pyqId, String spelling, LocalDateTime createdAt) {
+        String key = normalize(spelling);
+        if (createdAt != null) {
+            dictionary.created.put(pyqId, createdAt);
+            dictionary.subjects.computeIfAbsent(key, k -> new Subject())
+                    .spellings.computeIfAbsent(spelling, s -> new Roaring64NavigableMap()).addLong(pyqId);
+            return;
+        }
+        dictionary.created.remove(pyqId);
+        Subject subject = dictionary.subjects.get(key);
+        Roaring64NavigableMap ids = subject != null ? subject.spellings.get(spelling) : null;
+        if (ids == null) {
+            return;
+        }
+        ids.removeLong(pyqId);
+        if (ids.isEmpty()) {
+            subject.spellings.remove(spelling);
+            if (subject.spellings.isEmpty()) {
+                dictionary.subjects.remove(key);
+            }
+        }
+    }
+
+    private Dictionary load(Long universityId) {
+        Dictionary dictionary = dictionaries.computeIfAbsent(universityId, id -> new Dictionary());
+        if (dictionary.loaded) {
+            return dictionary;
+        }
+        synchronized (dictionary) {
+            if (!dictionary.loaded) {
+                for (Object[] row : pyqRepository.findSubjects(universityId)) {
+                    put(dictionary, (Long) row[0], (String) row[1], (LocalDateTime) row[2]);
+                }
+                dictionary.loaded = true;
+            }
+        }
+        return dictionary;
+    }
+}
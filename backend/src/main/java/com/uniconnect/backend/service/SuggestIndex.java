@@ -0,0 +1,219 @@
+package com.uniconnect.backend.service;
+
+import com.uniconnect.backend.repository.ClubRepository;
+import com.uniconnect.backend.repository.MarketplaceItemRepository;
+import com.uniconnect.backend.repository.PYQRepository;
+import com.uniconnect.backend.repository.PostRepository;
+import com.uniconnect.backend.search.PrefixTrie;
+import com.uniconnect.backend.search.Tokenizer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Search-as-you-type suggestions per university: post keywords, marketplace titles,
+ * PYQ subjects and club names in one {@link PrefixTrie}. A university's trie is
+ * built in the background after its first lookup, which like any lookup before the
+ * build finishes gets no suggestions, and then maintained from create/delete events.
+ * Events that arrive during the build are buffered and replayed on top of it. Every
+ * entity's contribution is remembered, so replaying an event is harmless.
+ */
+@Slf4j
+@Component
+public class SuggestIndex {
+
+    public enum Kind {
+        POST, MARKETPLACE, PYQ, CLUB
+    }
+
+    private static final int MIN_KEYWORD_LENGTH = 3;
+    private static final int LOAD_BATCH = 1000;
+    private static final Set<String> STOPWORDS = Set.of("the", "and", "for", "are", "but", "not", "you", "all",
+            "any", "can", "has", "have", "was", "with", "this", "that", "from", "they", "what", "when", "will",
+            "your", "there", "their", "about", "would", "which", "just", "into", "than", "then", "them", "been");
+
+    private static final class Shard {
+        final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        PrefixTrie trie;
+        // (kind, entity id) -> phrases it added
+        Map<String, List<String>> contributions = new HashMap<>();
+        // Events seen while the build runs, replayed once it is done
+        final List<Runnable> pending = new ArrayList<>();
+        // Set from the first lookup until the build fails, so only one build runs
+        final AtomicBoolean loading = new AtomicBoolean();
+        volatile boolean loaded;
+
+        Shard(int topN) {
+            this.trie = new PrefixTrie(topN);
+        }
+    }
+
+    private final PostRepository postRepository;
+    private final MarketplaceItemRepository marketplaceItemRepository;
+    private final PYQRepository pyqRepository;
+    private final ClubRepository clubRepository;
+    private final int maxSuggestions;
+    private final Map<Long, Shard> shards = new ConcurrentHashMap<>();
+    private final ThreadPoolExecutor loader;
+
+    public SuggestIndex(PostRepository postRepository, MarketplaceItemRepository marketplaceItemRepository,
+            PYQRepository pyqRepository, ClubRepository clubRepository,
+            @Value("${search.suggest.max-suggestions:10}") int maxSuggestions) {
+        this.postRepository = postRepository;
+        this.marketplaceItemRepository = marketplaceItemRepository;
+        this.pyqRepository = pyqRepository;
+        this.clubRepository = clubRepository;
+        this.maxSuggestions = maxSuggestions;
+
+        // At most one build per university is ever queued
+        this.loader = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), r -> {
+            Thread thread = new Thread(r, "suggest-load");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public void added(Long universityId, Kind kind, Long id, String text) {
+        TransactionCallbacks.afterCommit(() -> apply(universityId, kind, id, text));
+    }
+
+    public void removed(Long universityId, Kind kind, Long id) {
+        TransactionCallbacks.afterCommit(() -> apply(universityId, kind, id, null));
+    }
+
+    public List<Map<String, Object>> suggest(Long universityId, String prefix, int limit) {
+        Shard shard = shards.computeIfAbsent(universityId, id -> new Shard(maxSuggestions));
+        if (!shard.loaded) {
+            if (shard.loading.compareAndSet(false, true)) {
+                loader.execute(() -> load(universityId, shard));
+            }
+            return List.of();
+        }
+        shard.lock.readLock().lock();
+        try {
+            List<Map<String, Object>> result = new ArrayList<>();
+            for (PrefixTrie.Entry entry : shard.trie.complete(prefix, Math.min(limit, maxSuggestions))) {
+                Map<String, Object> suggestion = new LinkedHashMap<>();
+                suggestion.put("text", entry.getText());
+                suggestion.put("type", entry.getKind());
+                suggestion.put("count", entry.getWeight());
+                result.add(suggestion);
+            }
+            return result;
+        } finally {
+            shard.lock.readLock().unlock();
+        }
+    }
+
+    private void apply(Long universityId, Kind kind, Long id, String text) {
+        Shard shard = shards.get(universityId);
+        if (shard == null) {
+            return;
+        }
+        shard.lock.writeLock().lock();
+        try {
+            if (shard.loaded) {
+                put(shard.trie, shard.contributions, kind, id, text);
+            } else if (shard.loading.get()) {
+                // The build may have read past this change already, so it is replayed on top
+                shard.pending.add(() -> put(shard.trie, shard.contributions, kind, id, text));
+            }
+            // A shard not being built reads the change from the database when it is
+        } finally {
+            shard.lock.writeLock().unlock();
+        }
+    }
+
+    private static void put(PrefixTrie trie, Map<String, List<String>> contributions, Kind kind, Long id,
+            String text) {
+        String key = kind + ":" + id;
+        List<String> previous = contributions.remove(key);
+        if (previous != null) {
+            previous.forEach(phrase -> trie.decrement(kind.name(), phrase));
+        }
+        if (text == null) {
+            return;
+        }
+        List<String> phrases = kind == Kind.POST ? keywords(text) : List.of(text);
+        phrases.forEach(phrase -> trie.increment(kind.name(), phrase));
+        contributions.put(key, phrases);
+    }
+
+    private static List<String> keywords(String content) {
+        Set<String> keywords = new LinkedHashSet<>();
+        for (String token : Tokenizer.tokenize(content)) {
+            if (token.length() >= MIN_KEYWORD_LENGTH && !STOPWORDS.contains(token)
+                    && !token.chars().allMatch(Character::isDigit)) {
+                keywords.add(token);
+            }
+        }
+        return new ArrayList<>(keywords);
+    }
+
+    // Builds without the shard's lock, so lookups and events never wait on the database
+    private void load(Long universityId, Shard shard) {
+        PrefixTrie trie = new PrefixTrie(maxSuggestions);
+        Map<String, List<String>> contributions = new HashMap<>();
+        try {
+            Slice<Object[]> batch;
+            long afterId = 0;
+            do {
+                batch = postRepository.findContentAfter(universityId, afterId, PageRequest.of(0, LOAD_BATCH));
+                for (Object[] row : batch) {
+                    put(trie, contributions, Kind.POST, (Long) row[0], (String) row[1]);
+                    afterId = (Long) row[0];
+                }
+            } while (batch.hasNext());
+            marketplaceItemRepository.findTitles(universityId, "AVAILABLE")
+                    .forEach(row -> put(trie, contributions, Kind.MARKETPLACE, (Long) row[0], (String) row[1]));
+            pyqRepository.findSubjects(universityId)
+                    .forEach(row -> put(trie, contributions, Kind.PYQ, (Long) row[0], (String) row[1]));
+            clubRepository.findNames(universityId)
+                    .forEach(row -> put(trie, contributions, Kind.CLUB, (Long) row[0], (String) row[1]));
+        } catch (RuntimeException e) {
+            log.warn("Could not build suggestions for university {}: {}", universityId, e.getMessage());
+            shard.lock.writeLock().lock();
+            try {
+                // The next lookup starts over
+                shard.pending.clear();
+                shard.loading.set(false);
+            } finally {
+                shard.lock.writeLock().unlock();
+            }
+            return;
+        }
+
+        shard.lock.writeLock().lock();
+        try {
+            shard.trie = trie;
+            shard.contributions = contributions;
+            shard.pending.forEach(Runnable::run);
+            shard.pending.clear();
+            shard.loaded = true;
+        } finally {
+            shard.lock.writeLock().unlock();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        loader.shutdownNow();
+    }
+}
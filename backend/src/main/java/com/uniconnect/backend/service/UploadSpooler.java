@@ -0,0 +1,98 @@
+package com.uniconnect.backend.service;
+
+import com.uniconnect.backend.exception.BadRequestException;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Copies an uploaded file to a private temp file through one fixed-size buffer,
+ * computing its SHA-256 and enforcing the size limit as the bytes pass. Heap use
+ * per upload is the buffer, whatever the file size; storage backends then stream
+ * from the spooled file.
+ */
+@Slf4j
+@Component
+public class UploadSpooler {
+
+    @Getter
+    public static class SpooledFile implements AutoCloseable {
+        private final Path path;
+        private final long size;
+        private final String sha256;
+
+        SpooledFile(Path path, long size, String sha256) {
+            this.path = path;
+            this.size = size;
+            this.sha256 = sha256;
+        }
+
+        @Override
+        public void close() {
+            try {
+                Files.deleteIfExists(path);
+            } catch (IOException e) {
+                log.warn("Could not delete spooled upload {}", path, e);
+            }
+        }
+    }
+
+    private final int bufferSize;
+    private final long maxFileSize;
+    private final Path directory;
+
+    public UploadSpooler(@Value("${uploads.buffer-size:65536}") int bufferSize,
+            @Value("${spring.servlet.multipart.max-file-size:10MB}") DataSize maxFileSize,
+            @Value("${uploads.spool-dir:${java.io.tmpdir}}") String directory) {
+        this.bufferSize = bufferSize;
+        this.maxFileSize = maxFileSize.toBytes();
+        this.directory = Paths.get(directory);
+    }
+
+    public SpooledFile spool(MultipartFile file) throws IOException {
+        return spool(file, directory);
+    }
+
+    /** Spools into {@code directory}, for callers that keep the file beyond the request. */
+    public SpooledFile spool(MultipartFile file, Path directory) throws IOException {
+        if (file.isEmpty()) {
+            throw new BadRequestException("File is empty");
+        }
+        Files.createDirectories(directory);
+        Path path = Files.createTempFile(directory, "upload-", ".part");
+        try (InputStream in = file.getInputStream(); OutputStream out = Files.newOutputStream(path)) {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] buffer = new byte[bufferSize];
+            long size = 0;
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                size += read;
+                if (size > maxFileSize) {
+                    throw new BadRequestException("File exceeds the maximum size of " + maxFileSize + " bytes");
+                }
+                digest.update(buffer, 0, read);
+                out.write(buffer, 0, read);
+            }
+            return new SpooledFile(path, size, HexFormat.of().formatHex(digest.digest()));
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(path);
+            throw e;
+        } catch (NoSuchAlgorithmException e) {
+            Files.deleteIfExists(path);
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
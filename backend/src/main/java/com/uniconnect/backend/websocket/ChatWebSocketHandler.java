@@ -0,0 +1,109 @@
+package com.uniconnect.backend.websocket;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.uniconnect.backend.security.JwtHandshakeInterceptor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
+import org.springframework.web.socket.handler.TextWebSocketHandler;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Pushes chat events to users connected to this node over {@code /ws/chat}. Clients only
+ * listen here; messages are still sent through the REST API. A user may be connected from
+ * several tabs. A client that falls too far behind is disconnected and catches up through
+ * {@code GET /api/chat/messages?since=} when it reconnects.
+ */
+@Slf4j
+@Component
+public class ChatWebSocketHandler extends TextWebSocketHandler {
+
+    private final ObjectMapper objectMapper;
+    private final int sendTimeLimitMs;
+    private final int bufferSizeLimit;
+    // User id -> session id -> session, wrapped so concurrent sends are safe
+    private final Map<Long, Map<String, WebSocketSession>> sessions = new ConcurrentHashMap<>();
+
+    public ChatWebSocketHandler(ObjectMapper objectMapper,
+            @Value("${chat.websocket.send-time-limit-ms:10000}") int sendTimeLimitMs,
+            @Value("${chat.websocket.buffer-size-limit:524288}") int bufferSizeLimit) {
+        this.objectMapper = objectMapper;
+        this.sendTimeLimitMs = sendTimeLimitMs;
+        this.bufferSizeLimit = bufferSizeLimit;
+    }
+
+    @Override
+    public void afterConnectionEstablished(WebSocketSession session) {
+        Long userId = userId(session);
+        sessions.computeIfAbsent(userId, id -> new ConcurrentHashMap<>())
+                .put(session.getId(), new ConcurrentWebSocketSessionDecorator(session, sendTimeLimitMs, bufferSizeLimit));
+    }
+
+    @Override
+    public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
+        Long userId = userId(session);
+        sessions.computeIfPresent(userId, (id, userSessions) -> {
+            userSessions.remove(session.getId());
+            return userSessions.isEmpty() ? null : userSessions;
+        });
+    }
+
+    @Override
+    public void handleTransportError(WebSocketSession session, Throwable exception) throws IOException {
+        session.close(CloseStatus.SERVER_ERROR);
+    }
+
+    public boolean isConnected(Long userId) {
+        return sessions.containsKey(userId);
+    }
+
+    public String toJson(Object event) {
+        try {
+            return objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize chat event", e);
+        }
+    }
+
+    /**
+     * Sends an already serialized event to every session the user has on this node; a no-op
+     * when they have none. Events reach other nodes through the {@link EventBackplane}.
+     */
+    public void send(Long userId, String json) {
+        Map<String, WebSocketSession> userSessions = sessions.get(userId);
+        if (userSessions == null) {
+            return;
+        }
+        TextMessage message = new TextMessage(json);
+        for (WebSocketSession session : userSessions.values()) {
+            try {
+                session.sendMessage(message);
+            } catch (IOException | RuntimeException e) {
+                // Includes SessionLimitExceededException for a client over its send-time or buffer limit.
+                // The client reconnects and catches up from the last message it saw
+                log.debug("Dropping chat session {}: {}", session.getId(), e.getMessage());
+                close(session);
+            }
+        }
+    }
+
+    private static Long userId(WebSocketSession session) {
+        return (Long) session.getAttributes().get(JwtHandshakeInterceptor.USER_ID);
+    }
+
+    private static void close(WebSocketSession session) {
+        try {
+            session.close(CloseStatus.SESSION_NOT_RELIABLE);
+        } catch (IOException e) {
+            log.debug("Could not close chat session {}", session.getId(), e);
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.uniconnect.backend.websocket;
+
+/**
+ * Carries chat events (messages, typing) to the node holding the recipient's WebSocket
+ * sessions. Every node receives every event and delivers only to users connected to it.
+ * Events published for one user from one thread arrive in the order they were published.
+ * Delivery is best effort: clients that miss a message catch up by message id.
+ */
+public interface EventBackplane {
+
+    void publish(Long userId, Object event);
+}
@@ -0,0 +1,260 @@
+package com.uniconnect.backend.websocket;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Backplane for several backend processes on one host. Each node listens on a Unix domain
+ * socket named after it in a shared directory, and finds its peers by listing that directory.
+ * A published event is delivered to local sessions and framed once to every peer as
+ * {@code [length][user id][JSON]}. Each peer has its own queue, drained by one thread over one
+ * connection, and each incoming connection is read by one thread, so events from a node reach
+ * a recipient in the order they were published. Frames for a peer that is down, or whose queue
+ * is full, are dropped. A socket file that refuses connections was left by a node that did not
+ * shut down cleanly; it is deleted and the peer forgotten.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "chat.backplane", havingValue = "local-socket")
+public class LocalSocketBackplane implements EventBackplane {
+
+    private static final String SUFFIX = ".sock";
+    private static final int MAX_FRAME = 16 * 1024 * 1024;
+
+    private final class Peer {
+        final Path path;
+        final BlockingQueue<byte[]> queue = new ArrayBlockingQueue<>(queueCapacity);
+        final Thread writer;
+        volatile boolean open = true;
+        SocketChannel channel;
+
+        Peer(Path path) {
+            this.path = path;
+            this.writer = new Thread(this::run, "backplane-peer-" + path.getFileName());
+            this.writer.setDaemon(true);
+            this.writer.start();
+        }
+
+        void offer(byte[] frame) {
+            if (!queue.offer(frame)) {
+                log.warn("Backplane queue for {} is full, dropping an event", path.getFileName());
+            }
+        }
+
+        private void run() {
+            // Connect straight away, so a stale socket is found even before there is traffic for it
+            try {
+                channel = SocketChannel.open(UnixDomainSocketAddress.of(path));
+            } catch (ConnectException e) {
+                stale();
+                return;
+            } catch (IOException e) {
+                log.debug("Backplane peer {} unreachable: {}", path.getFileName(), e.getMessage());
+            }
+            while (open) {
+                byte[] frame;
+                try {
+                    frame = queue.poll(1, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    break;
+                }
+                if (frame == null) {
+                    continue;
+                }
+                try {
+                    if (channel == null) {
+                        channel = SocketChannel.open(UnixDomainSocketAddress.of(path));
+                    }
+                    ByteBuffer buffer = ByteBuffer.wrap(frame);
+                    while (buffer.hasRemaining()) {
+                        channel.write(buffer);
+                    }
+                } catch (ConnectException e) {
+                    stale();
+                    break;
+                } catch (IOException e) {
+                    log.debug("Backplane peer {} unreachable: {}", path.getFileName(), e.getMessage());
+                    closeChannel();
+                    // Anything queued meanwhile would fail too; those clients catch up by message id
+                    queue.clear();
+                    sleep(retryDelayMs);
+                }
+            }
+            closeChannel();
+        }
+
+        void close() {
+            open = false;
+            writer.interrupt();
+        }
+
+        // Nothing listens on the socket any more: its node crashed, and a restart would bind a new one
+        private void stale() {
+            log.warn("Backplane peer {} refuses connections, removing its stale socket", path.getFileName());
+            open = false;
+            queue.clear();
+            peers.remove(path, this);
+            try {
+                Files.deleteIfExists(path);
+            } catch (IOException e) {
+                log.warn("Could not delete stale backplane socket {}: {}", path, e.getMessage());
+            }
+        }
+
+        private void closeChannel() {
+            if (channel != null) {
+                try {
+                    channel.close();
+                } catch (IOException e) {
+                    log.debug("Could not close backplane connection to {}", path.getFileName(), e);
+                }
+                channel = null;
+            }
+        }
+    }
+
+    private final ChatWebSocketHandler chatWebSocketHandler;
+    private final Path directory;
+    private final Path self;
+    private final int queueCapacity;
+    private final long retryDelayMs;
+    private final ServerSocketChannel server;
+    private final Map<Path, Peer> peers = new ConcurrentHashMap<>();
+
+    public LocalSocketBackplane(ChatWebSocketHandler chatWebSocketHandler,
+            @Value("${chat.backplane.dir:data/backplane}") String directory,
+            @Value("${chat.backplane.node-id:}") String nodeId,
+            @Value("${chat.backplane.queue-capacity:10000}") int queueCapacity,
+            @Value("${chat.backplane.retry-delay-ms:1000}") long retryDelayMs) throws IOException {
+        this.chatWebSocketHandler = chatWebSocketHandler;
+        this.directory = Paths.get(directory).toAbsolutePath();
+        this.self = this.directory.resolve((nodeId.isEmpty() ? UUID.randomUUID().toString() : nodeId) + SUFFIX);
+        this.queueCapacity = queueCapacity;
+        this.retryDelayMs = retryDelayMs;
+
+        Files.createDirectories(this.directory);
+        // Left behind if this node id crashed before
+        Files.deleteIfExists(self);
+        this.server = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+        this.server.bind(UnixDomainSocketAddress.of(self));
+        Thread acceptor = new Thread(this::accept, "backplane-accept");
+        acceptor.setDaemon(true);
+        acceptor.start();
+        refreshPeers();
+    }
+
+    @Override
+    public void publish(Long userId, Object event) {
+        String json = chatWebSocketHandler.toJson(event);
+        chatWebSocketHandler.send(userId, json);
+        if (peers.isEmpty()) {
+            return;
+        }
+        byte[] body = json.getBytes(StandardCharsets.UTF_8);
+        byte[] frame = ByteBuffer.allocate(4 + 8 + body.length)
+                .putInt(8 + body.length).putLong(userId).put(body).array();
+        peers.values().forEach(peer -> peer.offer(frame));
+    }
+
+    @Scheduled(fixedDelayString = "${chat.backplane.refresh-ms:5000}")
+    public void refreshPeers() {
+        Set<Path> found = new HashSet<>();
+        try (DirectoryStream<Path> sockets = Files.newDirectoryStream(directory, "*" + SUFFIX)) {
+            for (Path socket : sockets) {
+                if (!socket.equals(self)) {
+                    found.add(socket);
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Could not list backplane peers in {}: {}", directory, e.getMessage());
+            return;
+        }
+        found.forEach(path -> peers.computeIfAbsent(path, Peer::new));
+        peers.keySet().removeIf(path -> {
+            if (found.contains(path)) {
+                return false;
+            }
+            peers.get(path).close();
+            return true;
+        });
+    }
+
+    private void accept() {
+        while (server.isOpen()) {
+            try {
+                SocketChannel channel = server.accept();
+                Thread reader = new Thread(() -> read(channel), "backplane-read");
+                reader.setDaemon(true);
+                reader.start();
+            } catch (IOException e) {
+                if (server.isOpen()) {
+                    log.warn("Backplane accept failed: {}", e.getMessage());
+                }
+            }
+        }
+    }
+
+    // One thread per incoming connection keeps each sending node's events in order
+    private void read(SocketChannel channel) {
+        try (channel; DataInputStream in = new DataInputStream(Channels.newInputStream(channel))) {
+            while (true) {
+                int length = in.readInt();
+                if (length < 8 || length > MAX_FRAME) {
+                    log.warn("Dropping backplane connection after a frame of {} bytes", length);
+                    return;
+                }
+                long userId = in.readLong();
+                byte[] body = new byte[length - 8];
+                in.readFully(body);
+                chatWebSocketHandler.send(userId, new String(body, StandardCharsets.UTF_8));
+            }
+        } catch (EOFException e) {
+            // The peer closed the connection
+        } catch (IOException e) {
+            log.debug("Backplane connection closed: {}", e.getMessage());
+        }
+    }
+
+    private static void sleep(long ms) {
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws IOException {
+        server.close();
+        Files.deleteIfExists(self);
+        peers.values().forEach(Peer::close);
+    }
+}
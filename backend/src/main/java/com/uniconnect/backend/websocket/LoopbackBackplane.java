@@ -0,0 +1,19 @@
+package com.uniconnect.backend.websocket;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/** Single-node backplane: events go straight to this node's sessions. */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "chat.backplane", havingValue = "loopback", matchIfMissing = true)
+public class LoopbackBackplane implements EventBackplane {
+
+    private final ChatWebSocketHandler chatWebSocketHandler;
+
+    @Override
+    public void publish(Long userId, Object event) {
+        chatWebSocketHandler.send(userId, chatWebSocketHandler.toJson(event));
+    }
+}
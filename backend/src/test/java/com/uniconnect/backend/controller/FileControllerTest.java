@@ -0,0 +1,206 @@
+package com.uniconnect.backend.controller;
+
+import com.uniconnect.backend.exception.ResourceNotFoundException;
+import com.uniconnect.backend.service.BlobStore;
+import com.uniconnect.backend.service.LocalBlobStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class FileControllerTest {
+
+    // 100 bytes with a PDF header, so the content type is sniffed too
+    private static final String CONTENT = "%PDF-" + "0123456789".repeat(9) + "abcde";
+
+    @TempDir
+    Path directory;
+
+    private FileController controller;
+    private String folder;
+    private String name;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        LocalBlobStore blobStore = new LocalBlobStore(directory.resolve("blobs").toString(), "http://localhost/api/files");
+        Path source = Files.writeString(directory.resolve("paper.pdf"), CONTENT);
+        BlobStore.StoredBlob stored = blobStore.put(source, "pyqs");
+        folder = stored.key().split("/")[0];
+        name = stored.key().split("/")[1];
+        controller = new FileController(blobStore);
+    }
+
+    @Test
+    void servesWholeFileWithoutRange() throws IOException {
+        MockHttpServletResponse response = download(request());
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(response.getContentType()).isEqualTo("application/pdf");
+        assertThat(response.getContentLengthLong()).isEqualTo(100);
+        assertThat(response.getContentAsString()).isEqualTo(CONTENT);
+        assertThat(response.getHeader(HttpHeaders.ACCEPT_RANGES)).isEqualTo("bytes");
+    }
+
+    @Test
+    void servesClosedRange() throws IOException {
+        MockHttpServletResponse response = download(range("bytes=5-14"));
+
+        assertThat(response.getStatus()).isEqualTo(206);
+        assertThat(response.getHeader(HttpHeaders.CONTENT_RANGE)).isEqualTo("bytes 5-14/100");
+        assertThat(response.getContentAsString()).isEqualTo("0123456789");
+    }
+
+    @Test
+    void clampsRangePastTheEnd() throws IOException {
+        MockHttpServletResponse response = download(range("bytes=95-1000"));
+
+        assertThat(response.getStatus()).isEqualTo(206);
+        assertThat(response.getHeader(HttpHeaders.CONTENT_RANGE)).isEqualTo("bytes 95-99/100");
+        assertThat(response.getContentAsString()).isEqualTo("abcde");
+    }
+
+    @Test
+    void servesOpenEndedRange() throws IOException {
+        MockHttpServletResponse response = download(range("bytes=98-"));
+
+        assertThat(response.getStatus()).isEqualTo(206);
+        assertThat(response.getHeader(HttpHeaders.CONTENT_RANGE)).isEqualTo("bytes 98-99/100");
+        assertThat(response.getContentAsString()).isEqualTo("de");
+    }
+
+    @Test
+    void servesSuffixRange() throws IOException {
+        MockHttpServletResponse response = download(range("bytes=-3"));
+
+        assertThat(response.getStatus()).isEqualTo(206);
+        assertThat(response.getHeader(HttpHeaders.CONTENT_RANGE)).isEqualTo("bytes 97-99/100");
+        assertThat(response.getContentAsString()).isEqualTo("cde");
+    }
+
+    @Test
+    void suffixLongerThanFileServesWholeFile() throws IOException {
+        MockHttpServletResponse response = download(range("bytes=-500"));
+
+        assertThat(response.getStatus()).isEqualTo(206);
+        assertThat(response.getHeader(HttpHeaders.CONTENT_RANGE)).isEqualTo("bytes 0-99/100");
+        assertThat(response.getContentAsString()).isEqualTo(CONTENT);
+    }
+
+    @Test
+    void unsatisfiableRangesAnswer416() throws IOException {
+        for (String header : new String[] { "bytes=100-", "bytes=500-600", "bytes=-0" }) {
+            MockHttpServletResponse response = download(range(header));
+
+            assertThat(response.getStatus()).as(header).isEqualTo(416);
+            assertThat(response.getHeader(HttpHeaders.CONTENT_RANGE)).as(header).isEqualTo("bytes */100");
+            assertThat(response.getContentAsByteArray()).as(header).isEmpty();
+        }
+    }
+
+    @Test
+    void ignoresRangesItDoesNotServe() throws IOException {
+        for (String header : new String[] { "bytes=0-1,5-6", "bytes=10-5", "bytes=abc", "bytes=-", "items=0-5",
+                "bytes=5" }) {
+            MockHttpServletResponse response = download(range(header));
+
+            assertThat(response.getStatus()).as(header).isEqualTo(200);
+            assertThat(response.getHeader(HttpHeaders.CONTENT_RANGE)).as(header).isNull();
+            assertThat(response.getContentAsString()).as(header).isEqualTo(CONTENT);
+        }
+    }
+
+    @Test
+    void ifRangeWithCurrentEtagServesRange() throws IOException {
+        String etag = download(request()).getHeader(HttpHeaders.ETAG);
+        MockHttpServletRequest request = range("bytes=0-4");
+        request.addHeader(HttpHeaders.IF_RANGE, etag);
+
+        MockHttpServletResponse response = download(request);
+
+        assertThat(response.getStatus()).isEqualTo(206);
+        assertThat(response.getContentAsString()).isEqualTo("%PDF-");
+    }
+
+    @Test
+    void ifRangeWithStaleValidatorServesWholeFile() throws IOException {
+        MockHttpServletRequest request = range("bytes=0-4");
+        request.addHeader(HttpHeaders.IF_RANGE, "\"stale\"");
+
+        MockHttpServletResponse response = download(request);
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(response.getContentAsString()).isEqualTo(CONTENT);
+    }
+
+    @Test
+    void ifNoneMatchAnswers304() throws IOException {
+        String etag = download(request()).getHeader(HttpHeaders.ETAG);
+        for (String header : new String[] { etag, "W/" + etag, "\"other\", " + etag, "*" }) {
+            MockHttpServletRequest request = request();
+            request.addHeader(HttpHeaders.IF_NONE_MATCH, header);
+
+            MockHttpServletResponse response = download(request);
+
+            assertThat(response.getStatus()).as(header).isEqualTo(304);
+            assertThat(response.getContentAsByteArray()).as(header).isEmpty();
+        }
+    }
+
+    @Test
+    void headSendsHeadersOnly() throws IOException {
+        MockHttpServletRequest request = range("bytes=0-9");
+        request.setMethod("HEAD");
+
+        MockHttpServletResponse response = download(request);
+
+        assertThat(response.getStatus()).isEqualTo(206);
+        assertThat(response.getContentLengthLong()).isEqualTo(10);
+        assertThat(response.getContentAsByteArray()).isEmpty();
+    }
+
+    @Test
+    void handsRangeToSendfileWhenTheConnectorOffersIt() throws IOException {
+        MockHttpServletRequest request = range("bytes=10-19");
+        request.setAttribute("org.apache.tomcat.sendfile.support", true);
+
+        MockHttpServletResponse response = download(request);
+
+        assertThat(response.getContentAsByteArray()).isEmpty();
+        assertThat(request.getAttribute("org.apache.tomcat.sendfile.start")).isEqualTo(10L);
+        // Tomcat's end is exclusive
+        assertThat(request.getAttribute("org.apache.tomcat.sendfile.end")).isEqualTo(20L);
+    }
+
+    @Test
+    void unknownKeyIsNotFound() {
+        assertThatThrownBy(() -> controller.download(folder, "missing", request(), new MockHttpServletResponse()))
+                .isInstanceOf(ResourceNotFoundException.class);
+        assertThatThrownBy(() -> controller.download("..", name, request(), new MockHttpServletResponse()))
+                .isInstanceOf(ResourceNotFoundException.class);
+    }
+
+    private MockHttpServletResponse download(MockHttpServletRequest request) throws IOException {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        controller.download(folder, name, request, response);
+        return response;
+    }
+
+    private static MockHttpServletRequest request() {
+        return new MockHttpServletRequest("GET", "/api/files");
+    }
+
+    private static MockHttpServletRequest range(String header) {
+        MockHttpServletRequest request = request();
+        request.addHeader(HttpHeaders.RANGE, header);
+        return request;
+    }
+}
@@ -0,0 +1,120 @@
+package com.uniconnect.backend.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class InvertedIndexTest {
+
+    @Test
+    void segmentRoundTripKeepsRankingAndPhrases() throws IOException {
+        InvertedIndex index = new InvertedIndex();
+        index.add(1, "data structures mid sem paper");
+        index.add(127, "data structures notes");
+        index.add(128, "operating systems paper");
+        index.add(16_384, "structures of data");
+        // Ids and positions past one and two varint bytes
+        index.add(1L << 40, "paper " + "filler ".repeat(200) + "data structures");
+
+        InvertedIndex copy = roundTrip(index);
+
+        assertThat(copy.maxDocId()).isEqualTo(1L << 40);
+        assertThat(copy.docIds()).isEqualTo(index.docIds());
+        for (String query : new String[] { "data structures", "paper", "\"data structures\"", "\"structures data\"",
+                "filler", "missing" }) {
+            assertThat(copy.search(query, 0, 10)).as(query).isEqualTo(index.search(query, 0, 10));
+        }
+        assertThat(copy.search("\"data structures\"", 0, 10).hits())
+                .extracting(InvertedIndex.Hit::docId)
+                .containsExactlyInAnyOrder(1L, 127L, 1L << 40);
+    }
+
+    @Test
+    void removedDocumentsStayRemovedAfterRoundTrip() throws IOException {
+        InvertedIndex index = new InvertedIndex();
+        index.add(5, "compiler design");
+        index.add(9, "compiler construction");
+        index.remove(5);
+
+        InvertedIndex copy = roundTrip(index);
+
+        assertThat(copy.docIds()).containsExactly(9L);
+        assertThat(copy.search("design", 0, 10).total()).isZero();
+        // The high-water mark survives removal, so catch-up does not re-read old rows
+        assertThat(copy.maxDocId()).isEqualTo(9);
+    }
+
+    @Test
+    void emptyIndexRoundTrips() throws IOException {
+        InvertedIndex copy = roundTrip(new InvertedIndex());
+
+        assertThat(copy.docIds()).isEmpty();
+        assertThat(copy.maxDocId()).isZero();
+        assertThat(copy.search("anything", 0, 10).total()).isZero();
+    }
+
+    @Test
+    void varintsAreLittleEndianBase128() throws IOException {
+        InvertedIndex index = new InvertedIndex();
+        index.add(300, "x");
+
+        byte[] segment = write(index);
+
+        // After magic and version: maxDocId 300 = 0b10_0101100 -> 0xAC 0x02
+        assertThat(Arrays.copyOfRange(segment, 8, 10)).containsExactly(0xAC, 0x02);
+        // docCount 1, then the first id as a delta from 0 and its length 1
+        assertThat(Arrays.copyOfRange(segment, 10, 14)).containsExactly(0x01, 0xAC, 0x02, 0x01);
+    }
+
+    @Test
+    void rejectsForeignData() {
+        byte[] bytes = "not a segment".getBytes();
+
+        assertThatThrownBy(() -> read(bytes)).isInstanceOf(IOException.class).hasMessageContaining("search segment");
+    }
+
+    @Test
+    void rejectsOverlongVarint() throws IOException {
+        byte[] header = Arrays.copyOf(write(new InvertedIndex()), 8);
+        byte[] bytes = Arrays.copyOf(header, 8 + 10);
+        Arrays.fill(bytes, 8, bytes.length, (byte) 0x80);
+
+        assertThatThrownBy(() -> read(bytes)).isInstanceOf(IOException.class).hasMessageContaining("Malformed varint");
+    }
+
+    @Test
+    void rejectsTruncatedSegment() throws IOException {
+        InvertedIndex index = new InvertedIndex();
+        index.add(42, "truncated segment");
+        byte[] segment = write(index);
+
+        assertThatThrownBy(() -> read(Arrays.copyOf(segment, segment.length - 1))).isInstanceOf(EOFException.class);
+    }
+
+    private static InvertedIndex roundTrip(InvertedIndex index) throws IOException {
+        return read(write(index));
+    }
+
+    private static byte[] write(InvertedIndex index) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            index.writeTo(out);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static InvertedIndex read(byte[] segment) throws IOException {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(segment))) {
+            return InvertedIndex.readFrom(in);
+        }
+    }
+}
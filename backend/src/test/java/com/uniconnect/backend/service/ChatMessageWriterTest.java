@@ -0,0 +1,184 @@
+package com.uniconnect.backend.service;
+
+import com.uniconnect.backend.dto.ChatMessageView;
+import com.uniconnect.backend.dto.UserSummary;
+import com.uniconnect.backend.exception.ServiceUnavailableException;
+import com.uniconnect.backend.repository.ChatInboxRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+class ChatMessageWriterTest {
+
+    private static final long ALICE = 1;
+    private static final long BOB = 2;
+    private static final long CAROL = 3;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate = mock(NamedParameterJdbcTemplate.class);
+    private final List<SqlParameterSource[]> inserts = new ArrayList<>();
+    private final List<SqlParameterSource[]> inboxUpdates = new ArrayList<>();
+    private final AtomicLong nextId = new AtomicLong(1000);
+    private ChatMessageWriter writer;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (writer != null) {
+            writer.shutdown();
+        }
+    }
+
+    @Test
+    void assignsGeneratedKeysInQueueOrder() throws Exception {
+        recordWrites();
+        // A long linger with a batch of three makes the three messages one batch
+        writer = writer(3, 5000);
+
+        CompletableFuture<ChatMessageView> first = writer.submit(message(ALICE, BOB, "one"), "one");
+        CompletableFuture<ChatMessageView> second = writer.submit(message(BOB, ALICE, "two"), "two");
+        CompletableFuture<ChatMessageView> third = writer.submit(message(ALICE, CAROL, "three"), "three");
+
+        assertThat(get(first).getId()).isEqualTo(1000);
+        assertThat(get(second).getId()).isEqualTo(1001);
+        assertThat(get(third).getId()).isEqualTo(1002);
+        assertThat(inserts).hasSize(1);
+        assertThat(inserts.get(0)).extracting(row -> row.getValue("content")).containsExactly("one", "two", "three");
+        // The conversation key is the ordered pair, whoever sends
+        assertThat(inserts.get(0)[1].getValue("lowId")).isEqualTo(ALICE);
+        assertThat(inserts.get(0)[1].getValue("highId")).isEqualTo(BOB);
+    }
+
+    @Test
+    void collapsesInboxUpdatesPerConversationSide() throws Exception {
+        recordWrites();
+        writer = writer(4, 5000);
+
+        List<CompletableFuture<ChatMessageView>> sent = List.of(
+                writer.submit(message(ALICE, BOB, "hi"), "hi"),
+                writer.submit(message(ALICE, BOB, "are you there"), "are you there"),
+                writer.submit(message(BOB, ALICE, "yes"), "yes"),
+                writer.submit(message(ALICE, BOB, "great"), "great"));
+        for (CompletableFuture<ChatMessageView> future : sent) {
+            get(future);
+        }
+
+        assertThat(inboxUpdates).hasSize(1);
+        SqlParameterSource[] rows = inboxUpdates.get(0);
+        // Four messages, but only two inbox rows: one per side of the conversation
+        assertThat(rows).hasSize(2);
+        SqlParameterSource alice = row(rows, ALICE, BOB);
+        SqlParameterSource bob = row(rows, BOB, ALICE);
+        for (SqlParameterSource side : List.of(alice, bob)) {
+            assertThat(side.getValue("messageId")).isEqualTo(1003L);
+            assertThat(side.getValue("preview")).isEqualTo("great");
+            assertThat(side.getValue("senderId")).isEqualTo(ALICE);
+        }
+        // Each side counts only what the partner sent
+        assertThat(alice.getValue("unread")).isEqualTo(1);
+        assertThat(bob.getValue("unread")).isEqualTo(3);
+    }
+
+    @Test
+    void failedBatchIsRetriedMessageByMessage() throws Exception {
+        doAnswer(invocation -> {
+            SqlParameterSource[] rows = invocation.getArgument(1);
+            if (Arrays.stream(rows).anyMatch(row -> "bad".equals(row.getValue("content")))) {
+                throw new DataIntegrityViolationException("receiver deleted");
+            }
+            return assignKeys(rows, invocation.getArgument(2));
+        }).when(jdbcTemplate).batchUpdate(startsWith("INSERT INTO chat_messages"), any(SqlParameterSource[].class),
+                any(KeyHolder.class), any(String[].class));
+        writer = writer(2, 5000);
+
+        CompletableFuture<ChatMessageView> good = writer.submit(message(ALICE, BOB, "good"), "good");
+        CompletableFuture<ChatMessageView> bad = writer.submit(message(ALICE, CAROL, "bad"), "bad");
+
+        assertThat(get(good).getId()).isEqualTo(1000);
+        assertThatThrownBy(() -> get(bad)).isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(DataIntegrityViolationException.class);
+    }
+
+    @Test
+    void shutdownWritesWhatWasQueuedAndRejectsTheRest() throws Exception {
+        recordWrites();
+        writer = writer(10, 200);
+
+        CompletableFuture<ChatMessageView> queued = writer.submit(message(ALICE, BOB, "last"), "last");
+        writer.shutdown();
+
+        assertThat(queued).isCompleted();
+        assertThat(queued.get().getId()).isEqualTo(1000);
+        assertThatThrownBy(() -> writer.submit(message(ALICE, BOB, "late"), "late"))
+                .isInstanceOf(ServiceUnavailableException.class);
+    }
+
+    private void recordWrites() {
+        doAnswer(invocation -> {
+            SqlParameterSource[] rows = invocation.getArgument(1);
+            inserts.add(rows);
+            return assignKeys(rows, invocation.getArgument(2));
+        }).when(jdbcTemplate).batchUpdate(startsWith("INSERT INTO chat_messages"), any(SqlParameterSource[].class),
+                any(KeyHolder.class), any(String[].class));
+        doAnswer(invocation -> {
+            SqlParameterSource[] rows = invocation.getArgument(1);
+            inboxUpdates.add(rows);
+            return new int[rows.length];
+        }).when(jdbcTemplate).batchUpdate(eq(ChatInboxRepository.RECORD), any(SqlParameterSource[].class));
+    }
+
+    // Drivers name the key column differently, so alternate between two names
+    private int[] assignKeys(SqlParameterSource[] rows, KeyHolder keys) {
+        for (int i = 0; i < rows.length; i++) {
+            long id = nextId.getAndIncrement();
+            keys.getKeyList().add(Map.of(id % 2 == 0 ? "ID" : "GENERATED_KEY", id));
+        }
+        return new int[rows.length];
+    }
+
+    private ChatMessageWriter writer(int maxBatch, long lingerMs) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(mock(PlatformTransactionManager.class));
+        return new ChatMessageWriter(jdbcTemplate, transactionTemplate, ChatMessageWriter.AckMode.FLUSH, 100,
+                maxBatch, lingerMs, 5000, 100);
+    }
+
+    private static ChatMessageView message(long senderId, long receiverId, String content) {
+        ChatMessageView view = new ChatMessageView();
+        view.setSender(new UserSummary(senderId, "user" + senderId, null));
+        view.setReceiver(new UserSummary(receiverId, "user" + receiverId, null));
+        view.setContent(content);
+        view.setCreatedAt(LocalDateTime.now());
+        return view;
+    }
+
+    private static SqlParameterSource row(SqlParameterSource[] rows, long ownerId, long partnerId) {
+        return Arrays.stream(rows)
+                .filter(row -> row.getValue("ownerId").equals(ownerId) && row.getValue("partnerId").equals(partnerId))
+                .findFirst().orElseThrow();
+    }
+
+    private static ChatMessageView get(CompletableFuture<ChatMessageView> future) throws Exception {
+        return future.get(10, TimeUnit.SECONDS);
+    }
+}
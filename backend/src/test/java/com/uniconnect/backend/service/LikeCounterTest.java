@@ -0,0 +1,235 @@
+package com.uniconnect.backend.service;
+
+import com.uniconnect.backend.dto.PostView;
+import com.uniconnect.backend.entity.enums.PostType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Runs the like flush against a stubbed UPDATE that stands in for posts.like_count, and
+ * lets a feed read interleave with it at the points where a real request could.
+ */
+class LikeCounterTest {
+
+    private static final Long UNIVERSITY = 1L;
+    private static final Long POST = 10L;
+    private static final FeedCache.PageKey FIRST_PAGE = new FeedCache.PageKey(null, 0, 20, false);
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final FeedCache feedCache = new FeedCache(10, 3, 50, 32);
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+    private final LikeCounter likeCounter = new LikeCounter(jdbcTemplate,
+            new TransactionTemplate(transactionManager), feedCache);
+    // posts.like_count of POST as committed in the database
+    private final AtomicLong stored = new AtomicLong();
+    private final AtomicBoolean failNextUpdate = new AtomicBoolean();
+    private Runnable beforeCommit = () -> {
+    };
+    private Runnable afterCommit = () -> {
+    };
+
+    @BeforeEach
+    void stubUpdate() {
+        doAnswer(invocation -> {
+            beforeCommit.run();
+            if (failNextUpdate.getAndSet(false)) {
+                throw new QueryTimeoutException("lock wait timeout");
+            }
+            List<Object[]> args = invocation.getArgument(1);
+            for (Object[] row : args) {
+                if (POST.equals(row[1])) {
+                    stored.addAndGet((Long) row[0]);
+                }
+            }
+            afterCommit.run();
+            return new int[args.size()];
+        }).when(jdbcTemplate).batchUpdate(anyString(), anyList());
+    }
+
+    @Test
+    void flushFoldsDeltasIntoPagesCachedBeforeIt() {
+        cache(feedCache.version(UNIVERSITY), read());
+        likeCounter.add(POST, 3);
+
+        likeCounter.flush();
+
+        assertThat(stored).hasValue(3);
+        assertThat(cachedLikes()).isEqualTo(3);
+        assertThat(likeCounter.pendingDelta(POST)).isZero();
+    }
+
+    @Test
+    void pageReadBeforeTheFlushIsNotCachedAfterIt() {
+        long version = feedCache.version(UNIVERSITY);
+        List<PostView> stale = read();
+        likeCounter.add(POST, 3);
+
+        likeCounter.flush();
+        cache(version, stale);
+
+        assertThat((Object) feedCache.get(UNIVERSITY, FIRST_PAGE)).isNull();
+    }
+
+    @Test
+    void pageCachedWhileTheUpdateRunsIsDropped() {
+        likeCounter.add(POST, 3);
+        // Reads the count from before the update, and caches it before the flush is done
+        beforeCommit = () -> cache(feedCache.version(UNIVERSITY), read());
+
+        likeCounter.flush();
+
+        assertThat((Object) feedCache.get(UNIVERSITY, FIRST_PAGE)).isNull();
+    }
+
+    @Test
+    void pageReadWhileTheUpdateRunsIsNotCachedAfterIt() {
+        likeCounter.add(POST, 3);
+        AtomicLong version = new AtomicLong();
+        AtomicReference<List<PostView>> stale = new AtomicReference<>();
+        beforeCommit = () -> {
+            version.set(feedCache.version(UNIVERSITY));
+            stale.set(read());
+        };
+
+        likeCounter.flush();
+        cache(version.get(), stale.get());
+
+        assertThat((Object) feedCache.get(UNIVERSITY, FIRST_PAGE)).isNull();
+    }
+
+    @Test
+    void likesDuringTheFlushAreKeptForTheNextOne() {
+        likeCounter.add(POST, 3);
+        beforeCommit = () -> {
+            // In flight: not in the database yet, but still counted
+            assertThat(stored.get() + likeCounter.pendingDelta(POST)).isEqualTo(3);
+            likeCounter.add(POST, 1);
+        };
+        afterCommit = () -> assertThat(stored.get() + likeCounter.pendingDelta(POST)).isGreaterThanOrEqualTo(4);
+
+        likeCounter.flush();
+        assertThat(stored).hasValue(3);
+        assertThat(likeCounter.pendingDelta(POST)).isEqualTo(1);
+
+        beforeCommit = () -> {
+        };
+        afterCommit = () -> {
+        };
+        likeCounter.flush();
+        assertThat(stored).hasValue(4);
+        assertThat(likeCounter.pendingDelta(POST)).isZero();
+    }
+
+    @Test
+    void failedUpdateKeepsDeltasForTheNextFlush() {
+        cache(feedCache.version(UNIVERSITY), read());
+        likeCounter.add(POST, 3);
+        failNextUpdate.set(true);
+
+        likeCounter.flush();
+        assertThat(stored).hasValue(0);
+        assertThat(likeCounter.pendingDelta(POST)).isEqualTo(3);
+        assertThat(cachedLikes()).isZero();
+
+        likeCounter.flush();
+        assertThat(stored).hasValue(3);
+        assertThat(likeCounter.pendingDelta(POST)).isZero();
+        assertThat(cachedLikes()).isEqualTo(3);
+    }
+
+    @Test
+    void failedUpdateRollsTheWholeBatchBack() {
+        likeCounter.add(POST, 3);
+        failNextUpdate.set(true);
+
+        likeCounter.flush();
+
+        verify(transactionManager).rollback(any());
+        verify(transactionManager, never()).commit(any());
+        assertThat(likeCounter.pendingDelta(POST)).isEqualTo(3);
+    }
+
+    @Test
+    void likesRacingRetirementAreFlushedOnce() throws Exception {
+        // Every like is taken back, so the counter keeps going idle and flushes keep retiring it
+        int iterations = 20_000;
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicBoolean done = new AtomicBoolean();
+        try {
+            Runnable liker = () -> {
+                await(start);
+                for (int i = 0; i < iterations; i++) {
+                    likeCounter.add(POST, 1);
+                    likeCounter.add(POST, -1);
+                }
+            };
+            Future<?> first = executor.submit(liker);
+            Future<?> second = executor.submit(liker);
+            Future<?> flusher = executor.submit(() -> {
+                await(start);
+                while (!done.get()) {
+                    likeCounter.flush();
+                }
+            });
+            start.countDown();
+            first.get(30, TimeUnit.SECONDS);
+            second.get(30, TimeUnit.SECONDS);
+            done.set(true);
+            flusher.get(30, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        likeCounter.flush();
+        assertThat(stored).hasValue(0);
+        assertThat(likeCounter.pendingDelta(POST)).isZero();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // What a feed query returns right now
+    private List<PostView> read() {
+        return List.of(new PostView(POST, UNIVERSITY, PostType.NORMAL, "post", false, (int) stored.get(), 0,
+                LocalDateTime.now(), 2L, "author", null));
+    }
+
+    private void cache(long version, List<PostView> posts) {
+        feedCache.put(UNIVERSITY, FIRST_PAGE, version, posts, posts);
+    }
+
+    private int cachedLikes() {
+        List<PostView> page = feedCache.get(UNIVERSITY, FIRST_PAGE);
+        return page.get(0).getLikeCount();
+    }
+}
@@ -0,0 +1,99 @@
+package com.uniconnect.backend.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PresenceServiceTest {
+
+    private static final long TTL_MS = 500;
+    private static final long TYPING_TTL_MS = 150;
+    private static final long TICK_MS = 20;
+
+    private final AtomicLong now = new AtomicLong(1_000_000);
+    private final PresenceService presence = new PresenceService(TTL_MS, TYPING_TTL_MS, TICK_MS, now::get);
+
+    @Test
+    void expiredEntryLeavesMemoryOnTheNextTick() {
+        presence.heartbeat(1L, null);
+        assertThat(status(2L, 1L).online()).isTrue();
+
+        elapse(TTL_MS);
+        // Lookups see the deadline before the wheel gets to the entry
+        assertThat(status(2L, 1L).online()).isFalse();
+        assertThat(presence.size()).isEqualTo(1);
+
+        elapse(TICK_MS);
+        assertThat(presence.size()).isZero();
+    }
+
+    @Test
+    void entryStaysUntilItsDeadline() {
+        presence.heartbeat(1L, null);
+        elapse(TTL_MS - TICK_MS);
+        assertThat(presence.size()).isEqualTo(1);
+        assertThat(status(2L, 1L).online()).isTrue();
+    }
+
+    @Test
+    void typingExpiresBeforeOnline() {
+        presence.heartbeat(1L, 2L);
+        assertThat(status(2L, 1L)).isEqualTo(new PresenceService.Status(true, true));
+        // Typing is only shown to the partner being typed to
+        assertThat(status(3L, 1L)).isEqualTo(new PresenceService.Status(true, false));
+
+        elapse(TYPING_TTL_MS + TICK_MS);
+        assertThat(status(2L, 1L)).isEqualTo(new PresenceService.Status(true, false));
+        assertThat(presence.size()).isEqualTo(1);
+
+        elapse(TTL_MS);
+        assertThat(presence.size()).isZero();
+    }
+
+    @Test
+    void stopTypingClearsTypingOnly() {
+        presence.heartbeat(1L, 2L);
+        presence.stopTyping(1L);
+        assertThat(status(2L, 1L)).isEqualTo(new PresenceService.Status(true, false));
+    }
+
+    @Test
+    void heartbeatMovesTheDeadline() {
+        presence.heartbeat(1L, null);
+        elapse(300);
+        presence.heartbeat(1L, null);
+        elapse(300);
+
+        // Past the first deadline: the stale slot is cleaned without dropping the entry
+        assertThat(presence.size()).isEqualTo(1);
+        assertThat(status(2L, 1L).online()).isTrue();
+
+        elapse(TTL_MS - 300 + TICK_MS);
+        assertThat(presence.size()).isZero();
+    }
+
+    @Test
+    void lateTickCatchesUpAfterMoreThanOneRevolution() {
+        presence.heartbeat(1L, null);
+        presence.heartbeat(2L, 3L);
+
+        now.addAndGet(10 * TTL_MS);
+        presence.advance();
+        assertThat(presence.size()).isZero();
+    }
+
+    // Moves the clock forward one tick at a time, running the wheel as the scheduler would
+    private void elapse(long ms) {
+        for (long step = 0; step < ms; step += TICK_MS) {
+            now.addAndGet(Math.min(TICK_MS, ms - step));
+            presence.advance();
+        }
+    }
+
+    private PresenceService.Status status(Long viewerId, Long userId) {
+        return presence.statuses(viewerId, List.of(userId)).get(userId);
+    }
+}
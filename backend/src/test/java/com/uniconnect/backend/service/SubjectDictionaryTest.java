@@ -0,0 +1,77 @@
+package com.uniconnect.backend.service;
+
+import com.uniconnect.backend.repository.PYQRepository;
+import org.junit.jupiter.api.Test;
+import org.roaringbitmap.longlong.Roaring64NavigableMap;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class SubjectDictionaryTest {
+
+    private static final Long UNIVERSITY = 1L;
+    // Past what a 32-bit bitmap can hold
+    private static final long WIDE_ID = 3_000_000_000L;
+    private static final LocalDateTime AT = LocalDateTime.of(2026, 5, 1, 9, 0);
+
+    private final PYQRepository pyqRepository = mock(PYQRepository.class);
+    private final SubjectDictionary dictionary = new SubjectDictionary(pyqRepository);
+
+    @Test
+    void loadsAndMaintainsIdsPast32Bits() {
+        when(pyqRepository.findSubjects(UNIVERSITY)).thenReturn(List.of(
+                new Object[] { 7L, "Physics", AT },
+                new Object[] { WIDE_ID, "Physics", AT }));
+
+        assertThat(count("phy")).isEqualTo(2L);
+
+        dictionary.added(UNIVERSITY, WIDE_ID + 1, "Physics", AT);
+        assertThat(count("phy")).isEqualTo(3L);
+
+        dictionary.removed(UNIVERSITY, WIDE_ID, "Physics");
+        assertThat(count("phy")).isEqualTo(2L);
+    }
+
+    @Test
+    void wideExpansionNamesIdsPast32Bits() {
+        List<Object[]> rows = new ArrayList<>();
+        // More spellings than the IN list takes, so the match comes back as ids
+        for (int i = 0; i < 60; i++) {
+            rows.add(new Object[] { (long) i, "Maths " + i, AT });
+        }
+        rows.add(new Object[] { WIDE_ID, "Maths wide", AT });
+        when(pyqRepository.findSubjects(UNIVERSITY)).thenReturn(rows);
+
+        SubjectDictionary.Match match = dictionary.resolve(UNIVERSITY, "maths", false);
+
+        assertThat(match.spellings()).isNull();
+        assertThat(match.ids().getLongCardinality()).isEqualTo(61);
+        assertThat(match.ids().contains(WIDE_ID)).isTrue();
+    }
+
+    @Test
+    void ordersIdsNewestFirstPastTheCursor() {
+        when(pyqRepository.findSubjects(UNIVERSITY)).thenReturn(List.of(
+                new Object[] { 1L, "Physics", AT.plusHours(2) },
+                new Object[] { 2L, "Physics", AT },
+                new Object[] { 3L, "Physics", AT },
+                new Object[] { 4L, "Physics", AT.plusHours(1) }));
+        Roaring64NavigableMap ids = Roaring64NavigableMap.bitmapOf(1, 2, 3, 4, 9);
+
+        // 9 is not in the dictionary yet, so it was only just committed
+        assertThat(dictionary.newestFirst(UNIVERSITY, ids, null, null)).containsExactly(9L, 1L, 4L, 3L, 2L);
+        assertThat(dictionary.newestFirst(UNIVERSITY, ids, AT, 3L)).containsExactly(9L, 2L);
+    }
+
+    private Object count(String prefix) {
+        List<Map<String, Object>> subjects = dictionary.suggest(UNIVERSITY, prefix, false, 10);
+        assertThat(subjects).hasSize(1);
+        return subjects.get(0).get("count");
+    }
+}
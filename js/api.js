@@ -126,10 +126,10 @@ const AuthAPI = {
 
 // Posts API
 const PostsAPI = {
-    async getPosts(type = 'NORMAL') {
+    async getPosts(type = 'NORMAL', cursor = null) {
         const user = TokenManager.getUser();
         const uniId = user ? user.universityId : null;
-        let query = `?universityId=${uniId || ''}`;
+        let query = `?universityId=${uniId || ''}&cursor=${encodeURIComponent(cursor || '')}`;
         if (type) query += `&type=${type}`;
         return await apiCall(`/posts/feed${query}`);
     },
@@ -159,6 +159,20 @@ const PostsAPI = {
         });
     },
 
+    async unlikePost(postId) {
+        return await apiCall(`/posts/${postId}/like`, {
+            method: 'DELETE'
+        });
+    },
+
+    async getLikedPostIds(postIds) {
+        return await apiCall(`/posts/liked?postIds=${postIds.join(',')}`);
+    },
+
+    async getComments(postId, cursor = null, size = 50) {
+        return await apiCall(`/posts/${postId}/comments?size=${size}${cursor ? `&cursor=${encodeURIComponent(cursor)}` : ''}`);
+    },
+
     async addComment(postId, content) {
         return await apiCall(`/posts/${postId}/comment`, {
             method: 'POST',
@@ -175,11 +189,11 @@ const PostsAPI = {
 
 // PYQ API
 const PYQAPI = {
-    async getPYQs(subject = null, year = null) {
+    async getPYQs(subject = null, year = null, cursor = null) {
         const user = TokenManager.getUser();
         const uniId = user ? user.universityId : null;
-        let query = `?universityId=${uniId || ''}`;
-        if (subject) query += `&subject=${subject}`;
+        let query = `?universityId=${uniId || ''}&cursor=${encodeURIComponent(cursor || '')}`;
+        if (subject) query += `&subject=${encodeURIComponent(subject)}&fuzzy=true`;
         if (year) query += `&year=${year}`;
         return await apiCall(`/pyqs${query}`);
     },
@@ -202,6 +216,10 @@ const PYQAPI = {
         return data;
     },
 
+    async getUploadJob(id) {
+        return await apiCall(`/pyqs/jobs/${id}`);
+    },
+
     async deletePYQ(id) {
         return await apiCall(`/pyqs/${id}`, {
             method: 'DELETE'
@@ -227,10 +245,10 @@ const AlumniAPI = {
 
 // Marketplace API
 const MarketplaceAPI = {
-    async getItems(category = null) {
+    async getItems(category = null, cursor = null, sort = 'NEWEST') {
         const user = TokenManager.getUser();
         const uniId = user ? user.universityId : '';
-        let query = `?universityId=${uniId}`;
+        let query = `?universityId=${uniId}&sort=${sort}&cursor=${encodeURIComponent(cursor || '')}`;
         if (category) query += `&category=${category}`;
         return await apiCall(`/marketplace/items${query}`);
     },
@@ -294,12 +312,32 @@ const ChatAPI = {
         });
     },
 
-    async getConversation(otherUserId) {
-        return await apiCall(`/chat/conversation/${otherUserId}`);
+    async getConversation(otherUserId, beforeId = null, limit = 50) {
+        const query = beforeId ? `?before=${beforeId}&limit=${limit}` : `?limit=${limit}`;
+        return await apiCall(`/chat/conversation/${otherUserId}${query}`);
     },
 
     async getChatPartners() {
         return await apiCall('/chat/partners');
+    },
+
+    async getInbox(cursor = '', size = 20) {
+        return await apiCall(`/chat/inbox?cursor=${encodeURIComponent(cursor)}&size=${size}`);
+    },
+
+    async heartbeat(typingTo = null) {
+        return await apiCall('/chat/presence', {
+            method: 'POST',
+            body: JSON.stringify({ typingTo })
+        });
+    },
+
+    async markRead(otherUserId) {
+        return await apiCall(`/chat/conversation/${otherUserId}/read`, { method: 'POST' });
+    },
+
+    async getMessagesSince(sinceId, limit = 100) {
+        return await apiCall(`/chat/messages?since=${sinceId}&limit=${limit}`);
     }
 };
 
@@ -308,5 +346,11 @@ const SearchAPI = {
         const user = TokenManager.getUser();
         const uniId = user ? user.universityId : '';
         return await apiCall(`/search?universityId=${uniId}&query=${encodeURIComponent(query)}`);
+    },
+
+    async suggest(prefix) {
+        const user = TokenManager.getUser();
+        const uniId = user ? user.universityId : '';
+        return await apiCall(`/search/suggest?universityId=${uniId}&prefix=${encodeURIComponent(prefix)}`);
     }
 };
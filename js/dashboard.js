@@ -282,13 +282,10 @@ async function handlePyqUpload() {
 
     try {
         LoadingManager.show('Uploading PYQ...');
-        await PYQAPI.uploadPYQ(formData);
+        const job = await PYQAPI.uploadPYQ(formData);
         Modal.close('createPostModal');
-
-        // Switch to PYQ tab to see the new upload
-        switchTab('pyq');
-
-        Toast.success('PYQ uploaded successfully!');
+        Toast.success('PYQ queued, it will appear once processed');
+        watchPyqUpload(job.id);
     } catch (error) {
         console.error('PYQ Upload Error:', error);
         Toast.error(error.message || 'Failed to upload PYQ');
@@ -297,6 +294,27 @@ async function handlePyqUpload() {
     }
 }
 
+// The upload is processed in the background; poll its job until it settles
+async function watchPyqUpload(jobId, attempt = 0) {
+    try {
+        const job = await PYQAPI.getUploadJob(jobId);
+        if (job.status === 'DONE') {
+            Toast.success('PYQ uploaded successfully!');
+            switchTab('pyq');
+            return;
+        }
+        if (job.status === 'FAILED') {
+            Toast.error(`PYQ upload failed: ${job.lastError || 'unknown error'}`);
+            return;
+        }
+    } catch (error) {
+        console.error('PYQ job status error:', error);
+    }
+    if (attempt < 60) {
+        setTimeout(() => watchPyqUpload(jobId, attempt + 1), Math.min(2000 * (attempt + 1), 15000));
+    }
+}
+
 async function handleMarketplaceListing() {
     const title = document.getElementById('itemTitle').value;
     const description = document.getElementById('itemDescription').value;
@@ -363,15 +381,14 @@ function createPostHTML(post) {
             </div>
             <div class="post-content">${escapeHtml(post.content)}</div>
             <div class="post-footer">
-                <button class="btn btn-outline btn-sm" onclick="handleLike(${post.id})">
-                    ❤️ ${post.likeCount || 0}
-                </button>
+                ${likeButtonHTML(post.id, post.likeCount || 0, !!post.likedByMe)}
                 <button class="btn btn-outline btn-sm" onclick="toggleComments(${post.id})">
-                    💬 ${post.comments?.length || 0}
+                    💬 ${post.commentCount ?? post.comments?.length ?? 0}
                 </button>
             </div>
-            <div id="comments-${post.id}" class="comments-section" style="display: none;">
-                ${renderComments(post.comments || [], isAnon)}
+            <div id="comments-${post.id}" class="comments-section" style="display: none;"
+                 data-more="${(post.commentCount || 0) > (post.comments?.length || 0)}" data-anonymous="${!!isAnon}">
+                <div id="comment-list-${post.id}">${renderComments(post.comments || [], isAnon)}</div>
                 <div class="comment-input">
                     <input type="text" placeholder="Write a comment..." id="comment-input-${post.id}">
                     <button class="btn btn-primary btn-sm" onclick="handleComment(${post.id})">Post</button>
@@ -407,20 +424,60 @@ function renderComments(comments, forceAnonymous = false) {
     }).join('');
 }
 
+function likeButtonHTML(postId, likeCount, liked) {
+    return `
+                <button class="btn btn-outline btn-sm like-btn${liked ? ' liked' : ''}" id="like-btn-${postId}"
+                        data-liked="${liked}" onclick="handleLike(${postId})" title="${liked ? 'Unlike' : 'Like'}">
+                    ${liked ? '❤️' : '🤍'} ${likeCount}
+                </button>`;
+}
+
+// Only swaps the like button, so the rest of the tab keeps its scroll position and open comments
+function updateLikeButton(postId, likeCount, liked) {
+    const button = document.getElementById(`like-btn-${postId}`);
+    if (button) button.outerHTML = likeButtonHTML(postId, likeCount, liked);
+}
+
 async function handleLike(postId) {
+    const button = document.getElementById(`like-btn-${postId}`);
+    const liked = button?.dataset.liked === 'true';
     try {
-        await PostsAPI.likePost(postId);
-        await loadTabContent(currentTab);
-        Toast.success('Post liked!');
+        const post = liked ? await PostsAPI.unlikePost(postId) : await PostsAPI.likePost(postId);
+        updateLikeButton(postId, post.likeCount || 0, !!post.likedByMe);
     } catch (error) {
-        Toast.error('Failed to like post');
+        Toast.error(liked ? 'Failed to unlike post' : 'Failed to like post');
     }
 }
 
-function toggleComments(postId) {
+// Search hits come from the index without the viewer's likes; look them up in one request
+async function markLikedPosts(posts) {
+    if (!posts.length) return;
+    try {
+        const likedIds = new Set(await PostsAPI.getLikedPostIds(posts.slice(0, 100).map(post => post.id)));
+        posts.forEach(post => {
+            if (likedIds.has(post.id)) updateLikeButton(post.id, post.likeCount || 0, true);
+        });
+    } catch (error) {
+        console.warn('Could not load liked posts', error);
+    }
+}
+
+async function toggleComments(postId) {
     const commentsEl = document.getElementById(`comments-${postId}`);
     if (commentsEl) {
         commentsEl.style.display = commentsEl.style.display === 'none' ? 'block' : 'none';
+
+        // Feed entries only carry the latest comments; fetch the full thread on first open
+        if (commentsEl.style.display === 'block' && commentsEl.dataset.more === 'true') {
+            commentsEl.dataset.more = 'false';
+            try {
+                const page = await PostsAPI.getComments(postId);
+                document.getElementById(`comment-list-${postId}`).innerHTML =
+                    renderComments(page.content || [], commentsEl.dataset.anonymous === 'true');
+            } catch (error) {
+                Toast.error('Failed to load comments');
+            }
+        }
     }
 }
 
@@ -481,14 +538,18 @@ async function handleCreatePost(type) {
 }
 
 // === PYQs ===
-async function loadPYQs() {
-    const pyqs = await PYQAPI.getPYQs();
+let pyqCursor = null;
+
+async function loadPYQs(append = false) {
+    const page = await PYQAPI.getPYQs(null, null, append ? pyqCursor : null);
     const container = document.getElementById('pyqContainer');
     if (!container) return;
 
+    const pyqs = page.content || [];
+    pyqCursor = page.nextCursor;
     const currentUser = TokenManager.getUser();
 
-    container.innerHTML = pyqs.length ? pyqs.map(pyq => {
+    const html = pyqs.map(pyq => {
         const canDelete = currentUser && pyq.uploadedBy && currentUser.userId === pyq.uploadedBy.id;
         return `
             <div class="pyq-card card" id="pyq-${pyq.id}">
@@ -496,12 +557,24 @@ async function loadPYQs() {
                     <h3>${escapeHtml(pyq.subject)}</h3>
                     ${canDelete ? `<button onclick="deletePYQ(${pyq.id})" class="text-muted"><small>🗑️</small></button>` : ''}
                 </div>
+                ${pyq.previewUrl ? `<a href="${pyq.fileUrl}" target="_blank"><img src="${pyq.previewUrl}" alt="First page" class="pyq-preview" loading="lazy"></a>` : ''}
                 <p class="text-muted">Year: ${pyq.year} | ${pyq.examType || 'Exam'}</p>
                 <p class="text-sm">Uploaded by: ${escapeHtml(pyq.uploadedBy?.name || 'Unknown')}</p>
                 <a href="${pyq.fileUrl}" target="_blank" class="btn btn-primary btn-sm">📄 Download PDF</a>
             </div>
         `;
-    }).join('') : '<p class="empty-state">No PYQs available yet</p>';
+    }).join('');
+
+    document.getElementById('pyqLoadMore')?.remove();
+    if (append) {
+        container.insertAdjacentHTML('beforeend', html);
+    } else {
+        container.innerHTML = pyqs.length ? html : '<p class="empty-state">No PYQs available yet</p>';
+    }
+    if (page.hasNext) {
+        container.insertAdjacentHTML('beforeend',
+            '<button id="pyqLoadMore" class="btn btn-outline w-full" onclick="loadPYQs(true)">Load more</button>');
+    }
 }
 
 // === CONFESSIONS ===
@@ -528,14 +601,18 @@ async function loadAlumni() {
 }
 
 // === MARKETPLACE ===
-async function loadMarketplace() {
-    const items = await MarketplaceAPI.getItems();
+let marketplaceCursor = null;
+
+async function loadMarketplace(append = false) {
+    const page = await MarketplaceAPI.getItems(null, append ? marketplaceCursor : null);
     const container = document.getElementById('marketplaceContainer');
     if (!container) return;
 
+    const items = page.content || [];
+    marketplaceCursor = page.nextCursor;
     const currentUser = TokenManager.getUser();
 
-    container.innerHTML = items.length ? items.map(item => {
+    const html = items.map(item => {
         const isSeller = currentUser && item.seller && currentUser.userId === item.seller.id;
         return `
             <div class="marketplace-card card" id="item-${item.id}">
@@ -554,7 +631,18 @@ async function loadMarketplace() {
             }
             </div>
         `;
-    }).join('') : '<p class="empty-state">No items for sale</p>';
+    }).join('');
+
+    document.getElementById('marketplaceLoadMore')?.remove();
+    if (append) {
+        container.insertAdjacentHTML('beforeend', html);
+    } else {
+        container.innerHTML = items.length ? html : '<p class="empty-state">No items for sale</p>';
+    }
+    if (page.hasNext) {
+        container.insertAdjacentHTML('beforeend',
+            '<button id="marketplaceLoadMore" class="btn btn-outline w-full" style="grid-column: 1/-1" onclick="loadMarketplace(true)">Load more</button>');
+    }
 }
 
 // === MESSAGES / CHAT ===
@@ -573,22 +661,28 @@ async function openChatWithSeller(sellerId, itemId, itemTitle) {
     }
 }
 
+// Conversations shown in the sidebar, most recent first
+let chatInbox = [];
+
 async function loadMessagesTab() {
     try {
-        const partners = await ChatAPI.getChatPartners();
+        const page = await ChatAPI.getInbox();
+        chatInbox = page.content;
         const partnersList = document.getElementById('chatPartnersList');
         if (!partnersList) return;
 
-        partnersList.innerHTML = partners.map(user => `
-            <div class="chat-partner-item ${user.id === activeChatUserId ? 'active' : ''}" 
-                 onclick="loadConversation(${user.id})"
+        partnersList.innerHTML = chatInbox.map(entry => `
+            <div class="chat-partner-item ${entry.partner.id === activeChatUserId ? 'active' : ''}" 
+                 onclick="loadConversation(${entry.partner.id})"
                  style="padding: 1rem; border-bottom: 1px solid var(--border-color); cursor: pointer; transition: background 0.2s;">
-                <strong>${escapeHtml(user.name)}</strong>
-                <p class="text-xs text-muted">Click to view chat</p>
+                ${entry.online ? '<span class="presence-dot" title="Online"></span>' : ''}
+                <strong>${escapeHtml(entry.partner.name)}</strong>
+                ${entry.unreadCount > 0 ? `<span class="chat-unread-badge">${entry.unreadCount}</span>` : ''}
+                <p class="text-xs text-muted">${entry.typing ? '<em>typing…</em>' : escapeHtml(entry.lastMessagePreview || '')}</p>
             </div>
         `).join('');
 
-        if (partners.length === 0) {
+        if (chatInbox.length === 0) {
             partnersList.innerHTML = '<p class="text-muted text-center p-4">No conversations yet</p>';
         }
     } catch (error) {
@@ -613,32 +707,25 @@ async function loadConversation(otherUserId) {
     try {
         LoadingManager.show('Loading chat...');
         const messages = await ChatAPI.getConversation(otherUserId);
-        const currentUser = TokenManager.getUser();
 
         // Find partner name from the sidebar list (since we don't have a separate user fetch yet)
-        const partners = await ChatAPI.getChatPartners();
-        const partner = partners.find(p => p.id === otherUserId);
-        const partnerName = partner ? partner.name : 'User';
-
-        const msgHtml = messages.length ? messages.map(msg => {
-            const isMe = currentUser && (msg.sender.id === currentUser.userId || msg.sender.userId === currentUser.userId);
-            return `
-                <div class="message-wrapper" style="display: flex; justify-content: ${isMe ? 'flex-end' : 'flex-start'}; margin-bottom: 12px;">
-                    <div class="message-bubble" style="background: ${isMe ? 'var(--primary-color)' : 'var(--card-bg)'}; 
-                                                      color: ${isMe ? 'white' : 'inherit'}; 
-                                                      padding: 8px 12px; border-radius: 12px; max-width: 70%;
-                                                      border: ${isMe ? 'none' : '1px solid var(--border-color)'}">
-                        <p style="margin: 0;">${escapeHtml(msg.content)}</p>
-                        <span class="text-xs" style="opacity: 0.7; display: block; text-align: right; margin-top: 4px;">${formatDate(msg.createdAt)}</span>
-                    </div>
-                </div>
-            `;
-        }).join('') : '<p class="text-muted text-center" style="margin-top: 50px;">No messages yet. Say hello!</p>';
+        const entry = chatInbox.find(e => e.partner.id === otherUserId);
+        const partnerName = entry ? entry.partner.name : 'User';
+        if (entry && entry.unreadCount > 0) {
+            await ChatAPI.markRead(otherUserId);
+            loadMessagesTab();
+        }
+
+        messages.forEach(rememberChatMessage);
+        const msgHtml = messages.length ? messages.map(renderChatMessage).join('')
+            : '<p class="text-muted text-center chat-empty" style="margin-top: 50px;">No messages yet. Say hello!</p>';
 
         historyEl.innerHTML = `
             <div class="chat-header" style="padding-bottom: 12px; border-bottom: 1px solid var(--border-color); margin-bottom: 16px;">
                 <h3 class="text-lg font-bold">Chat with ${escapeHtml(partnerName)}</h3>
+                <span id="chatTypingIndicator" class="text-xs text-muted hidden">typing…</span>
             </div>
+            ${messages.length === CHAT_PAGE_SIZE ? earlierMessagesButton() : ''}
             ${msgHtml}
         `;
 
@@ -652,6 +739,189 @@ async function loadConversation(otherUserId) {
     }
 }
 
+const CHAT_PAGE_SIZE = 50;
+
+function earlierMessagesButton() {
+    return '<button id="chatLoadEarlier" class="btn btn-outline btn-sm w-full" style="margin-bottom: 12px;" onclick="loadEarlierMessages()">Load earlier messages</button>';
+}
+
+// Prepends the page before the oldest message shown, keeping the view where it was
+async function loadEarlierMessages() {
+    const historyEl = document.getElementById('chatHistory');
+    const oldest = historyEl?.querySelector('.message-wrapper');
+    if (!oldest || !activeChatUserId) return;
+
+    try {
+        const messages = await ChatAPI.getConversation(activeChatUserId, oldest.dataset.messageId, CHAT_PAGE_SIZE);
+        const previousHeight = historyEl.scrollHeight;
+        document.getElementById('chatLoadEarlier')?.remove();
+        oldest.insertAdjacentHTML('beforebegin',
+            (messages.length === CHAT_PAGE_SIZE ? earlierMessagesButton() : '') + messages.map(renderChatMessage).join(''));
+        historyEl.scrollTop += historyEl.scrollHeight - previousHeight;
+    } catch (error) {
+        Toast.error('Failed to load earlier messages');
+    }
+}
+
+function renderChatMessage(msg) {
+    const isMe = currentUser && (msg.sender.id === currentUser.userId || msg.sender.userId === currentUser.userId);
+    return `
+        <div class="message-wrapper" data-message-id="${msg.id}" style="display: flex; justify-content: ${isMe ? 'flex-end' : 'flex-start'}; margin-bottom: 12px;">
+            <div class="message-bubble" style="background: ${isMe ? 'var(--primary-color)' : 'var(--card-bg)'}; 
+                                              color: ${isMe ? 'white' : 'inherit'}; 
+                                              padding: 8px 12px; border-radius: 12px; max-width: 70%;
+                                              border: ${isMe ? 'none' : '1px solid var(--border-color)'}">
+                <p style="margin: 0;">${escapeHtml(msg.content)}</p>
+                <span class="text-xs" style="opacity: 0.7; display: block; text-align: right; margin-top: 4px;">${formatDate(msg.createdAt)}</span>
+            </div>
+        </div>
+    `;
+}
+
+// Highest message id seen, where catching up after a disconnect starts from
+let lastChatMessageId = null;
+
+function rememberChatMessage(msg) {
+    if (lastChatMessageId === null || msg.id > lastChatMessageId) {
+        lastChatMessageId = msg.id;
+    }
+}
+
+// Starts from the newest message we already have: the last one of the most recent conversation,
+// or 0 with no conversations at all, so catching up works before any chat is opened
+async function seedChatCursor() {
+    try {
+        const page = await ChatAPI.getInbox('', 1);
+        const newest = page.content.length > 0 ? page.content[0].lastMessageId : 0;
+        rememberChatMessage({ id: newest || 0 });
+    } catch (error) {
+        console.warn('Could not find the newest chat message', error);
+    }
+}
+
+// A message from the socket, a catch-up call or our own send; each may arrive more than once
+function handleChatMessage(msg) {
+    rememberChatMessage(msg);
+    const isMine = currentUser && msg.sender.id === currentUser.userId;
+    const partnerId = isMine ? msg.receiver.id : msg.sender.id;
+    const historyEl = document.getElementById('chatHistory');
+
+    if (currentTab === 'messages' && partnerId === activeChatUserId && historyEl) {
+        if (!historyEl.querySelector(`[data-message-id="${msg.id}"]`)) {
+            historyEl.querySelector('.chat-empty')?.remove();
+            historyEl.insertAdjacentHTML('beforeend', renderChatMessage(msg));
+            historyEl.scrollTop = historyEl.scrollHeight;
+        }
+        if (!isMine) {
+            // Read as it arrives, so the sidebar never shows it as unread
+            ChatAPI.markRead(partnerId).catch(() => {}).finally(loadMessagesTab);
+            return;
+        }
+    } else if (!isMine) {
+        Toast.show(`New message from ${escapeHtml(msg.sender.name)}`, 'info');
+    }
+    if (currentTab === 'messages') {
+        loadMessagesTab();
+    }
+}
+
+// Live delivery over a WebSocket; while it is down, new messages are polled by id instead
+const ChatSocket = {
+    socket: null,
+    retryDelay: 1000,
+    pollTimer: null,
+
+    connect() {
+        const token = TokenManager.getToken();
+        if (!token) return;
+        const url = API_BASE_URL.replace(/^http/, 'ws').replace(/\/api$/, '') + `/ws/chat?token=${encodeURIComponent(token)}`;
+        this.socket = new WebSocket(url);
+
+        this.socket.onopen = () => {
+            this.retryDelay = 1000;
+            this.stopPolling();
+            this.catchUp();
+        };
+        this.socket.onmessage = (event) => {
+            const data = JSON.parse(event.data);
+            if (data.type === 'message') {
+                handleChatMessage(data.message);
+            } else if (data.type === 'typing') {
+                handleTyping(data.userId, data.ttlMs);
+            }
+        };
+        this.socket.onclose = () => {
+            this.socket = null;
+            this.startPolling();
+            setTimeout(() => this.connect(), this.retryDelay);
+            this.retryDelay = Math.min(this.retryDelay * 2, 30000);
+        };
+    },
+
+    async catchUp() {
+        if (lastChatMessageId === null) {
+            await seedChatCursor();
+            if (lastChatMessageId === null) return;
+        }
+        try {
+            let messages;
+            do {
+                messages = await ChatAPI.getMessagesSince(lastChatMessageId);
+                messages.forEach(handleChatMessage);
+            } while (messages.length === 100);
+        } catch (error) {
+            console.warn('Chat catch-up failed', error);
+        }
+    },
+
+    startPolling() {
+        if (!this.pollTimer) {
+            this.pollTimer = setInterval(() => this.catchUp(), 5000);
+        }
+    },
+
+    stopPolling() {
+        clearInterval(this.pollTimer);
+        this.pollTimer = null;
+    }
+};
+
+// Presence: a heartbeat keeps us online, and typing in a conversation sends one sooner
+const PRESENCE_INTERVAL_MS = 10000;
+const TYPING_THROTTLE_MS = 2000;
+let lastTypingBeat = 0;
+let typingTimer = null;
+
+function startPresence() {
+    const beat = () => ChatAPI.heartbeat().catch(() => {});
+    beat();
+    setInterval(beat, PRESENCE_INTERVAL_MS);
+}
+
+function notifyTyping() {
+    const now = Date.now();
+    if (!activeChatUserId || now - lastTypingBeat < TYPING_THROTTLE_MS) return;
+    lastTypingBeat = now;
+    ChatAPI.heartbeat(activeChatUserId).catch(() => {});
+}
+
+// The partner is typing to us; it lapses unless another beat arrives in time
+function handleTyping(userId, ttlMs) {
+    if (currentTab !== 'messages') return;
+    const indicator = document.getElementById('chatTypingIndicator');
+    if (indicator && userId === activeChatUserId) {
+        indicator.classList.remove('hidden');
+    }
+    // The sidebar only needs refreshing when typing starts and when it lapses
+    if (typingTimer === null) loadMessagesTab();
+    clearTimeout(typingTimer);
+    typingTimer = setTimeout(() => {
+        typingTimer = null;
+        document.getElementById('chatTypingIndicator')?.classList.add('hidden');
+        loadMessagesTab();
+    }, ttlMs);
+}
+
 // Initial set up for chat send button
 document.addEventListener('DOMContentLoaded', () => {
     const sendBtn = document.getElementById('sendMessageBtn');
@@ -662,9 +932,11 @@ document.addEventListener('DOMContentLoaded', () => {
             if (!content || !activeChatUserId) return;
 
             try {
-                await ChatAPI.sendMessage(activeChatUserId, content);
+                lastTypingBeat = 0;
+                const message = await ChatAPI.sendMessage(activeChatUserId, content);
                 input.value = '';
-                await loadConversation(activeChatUserId);
+                // A message without an id is queued on the server; it arrives over the socket once stored
+                if (message.id) handleChatMessage(message);
             } catch (error) {
                 Toast.error('Failed to send message');
             }
@@ -743,6 +1015,9 @@ async function performGlobalSearch(query) {
         if (results.posts && results.posts.length) {
             containerPosts.innerHTML = '<h3 class="font-bold mb-2">Posts</h3>' +
                 results.posts.map(post => createPostHTML(post)).join('');
+            markLikedPosts(results.posts);
+        } else if (results.status && results.status.posts !== 'OK') {
+            containerPosts.innerHTML = '<p class="text-muted">Post search is taking too long, try again</p>';
         } else {
             containerPosts.innerHTML = '<p class="text-muted">No posts found matching "' + escapeHtml(query) + '"</p>';
         }
@@ -771,6 +1046,8 @@ async function performGlobalSearch(query) {
                         </div>
                     `;
                 }).join('');
+        } else if (results.status && results.status.marketplace !== 'OK') {
+            containerMarket.innerHTML = '<p class="text-muted w-full" style="grid-column: 1/-1">Marketplace search is taking too long, try again</p>';
         } else {
             containerMarket.innerHTML = '<p class="text-muted w-full" style="grid-column: 1/-1">No items found matching "' + escapeHtml(query) + '"</p>';
         }
@@ -793,50 +1070,30 @@ document.addEventListener('DOMContentLoaded', () => {
                 performGlobalSearch(searchInput.value.trim());
             }
         });
-    }
 
-    // Auto-refresh chat every 5 seconds if on messages tab
-    setInterval(() => {
-        if (currentTab === 'messages') {
-            loadMessagesTab();
-            if (activeChatUserId) {
-                // We avoid LoadingManager for background refreshes
-                ChatAPI.getConversation(activeChatUserId).then(messages => {
-                    const historyEl = document.getElementById('chatHistory');
-                    if (historyEl) {
-                        // Check if we have new messages
-                        const currentMsgs = historyEl.querySelectorAll('.message-wrapper').length;
-                        if (messages.length > currentMsgs) {
-                            // Update just the message area (silently)
-                            const currentUser = TokenManager.getUser();
-                            const partnerName = document.querySelector('.chat-partner-item.active strong')?.textContent || 'User';
-
-                            const msgHtml = messages.map(msg => {
-                                const isMe = currentUser && (msg.sender.id === currentUser.userId || msg.sender.userId === currentUser.userId);
-                                return `
-                                    <div class="message-wrapper" style="display: flex; justify-content: ${isMe ? 'flex-end' : 'flex-start'}; margin-bottom: 12px;">
-                                        <div class="message-bubble" style="background: ${isMe ? 'var(--primary-color)' : 'var(--card-bg)'}; 
-                                                                          color: ${isMe ? 'white' : 'inherit'}; 
-                                                                          padding: 8px 12px; border-radius: 12px; max-width: 70%;
-                                                                          border: ${isMe ? 'none' : '1px solid var(--border-color)'}">
-                                            <p style="margin: 0;">${escapeHtml(msg.content)}</p>
-                                            <span class="text-xs" style="opacity: 0.7; display: block; text-align: right; margin-top: 4px;">${formatDate(msg.createdAt)}</span>
-                                        </div>
-                                    </div>
-                                `;
-                            }).join('');
-
-                            historyEl.innerHTML = `
-                                <div class="chat-header" style="padding-bottom: 12px; border-bottom: 1px solid var(--border-color); margin-bottom: 16px;">
-                                    <h3 class="text-lg font-bold">Chat with ${escapeHtml(partnerName)}</h3>
-                                </div>
-                                ${msgHtml}
-                            `;
-                            historyEl.scrollTop = historyEl.scrollHeight;
-                        }
-                    }
-                }).catch(e => console.warn('bg refresh fail'));
+        // Suggestions as you type, shown through a native datalist
+        const suggestions = document.createElement('datalist');
+        suggestions.id = 'globalSearchSuggestions';
+        document.body.appendChild(suggestions);
+        searchInput.setAttribute('list', suggestions.id);
+        searchInput.setAttribute('autocomplete', 'off');
+        searchInput.addEventListener('input', debounce(async () => {
+            const prefix = searchInput.value.trim();
+            if (prefix.length < 2) {
+                suggestions.innerHTML = '';
+                return;
             }
-        }
-    }, 5000);
+            try {
+                const results = await SearchAPI.suggest(prefix);
+                suggestions.innerHTML = results.map(s => `<option value="${escapeHtml(s.text)}">`).join('');
+            } catch (error) {
+                suggestions.innerHTML = '';
+            }
+        }, 150));
+    }
+
+    // New chat messages are pushed over a WebSocket instead of polled
+    seedChatCursor().finally(() => ChatSocket.connect());
+    startPresence();
+    document.getElementById('chatMessageInput')?.addEventListener('input', notifyTyping);
 });